@@ -0,0 +1,110 @@
+package edu.virginia.sde.reviews;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing 10,000 reviews through Database.addReviews, which sends them as one JDBC batch on a cached
+ * statement, against the old approach of preparing the upsert once per call and calling executeUpdate on it
+ * once per review. Both variants commit once at the end, so the difference is what the batch saves over a
+ * round of executeUpdate per row.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=AddReviewsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AddReviewsBenchmark {
+
+    private static final int USERS = 100;
+    private static final int COURSES = 100;
+
+    private Path databaseFile;
+    private Database database;
+    private Connection rawConnection;
+    private List<Review> reviews;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("add-reviews-benchmark", ".sqlite3");
+        database = new Database(databaseFile.toString());
+        database.connect();
+        database.createTables();
+
+        for (int i = 0; i < USERS; i++) {
+            database.createUser("user" + i, "password" + i);
+        }
+        for (int i = 0; i < COURSES; i++) {
+            database.addCourse("CS", 1000 + i, "Benchmark Course " + i);
+        }
+
+        //one review per (user, course) pair, so USERS * COURSES = 10,000 distinct rows
+        reviews = new ArrayList<>(USERS * COURSES);
+        for (Course course : database.getAllCourses()) {
+            for (int i = 0; i < USERS; i++) {
+                reviews.add(new Review(0, course.getCourseID(), "user" + i, 1 + (i % 5),
+                        "Review " + i + " of " + course.getTitle()));
+            }
+        }
+
+        rawConnection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+        rawConnection.setAutoCommit(false);
+    }
+
+    //every invocation starts from an empty Reviews table, so both variants measure plain inserts
+    @Setup(Level.Invocation)
+    public void clearReviews() throws SQLException {
+        try (Statement statement = rawConnection.createStatement()) {
+            statement.executeUpdate("DELETE FROM Reviews");
+            statement.executeUpdate("DELETE FROM CourseStats");
+        }
+        rawConnection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException, SQLException {
+        rawConnection.close();
+        database.disconnect();
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+
+    @Benchmark
+    public void batched() throws SQLException {
+        database.addReviews(reviews);
+    }
+
+    @Benchmark
+    public void rowByRow() throws SQLException {
+        String upsert = "INSERT INTO Reviews(courseID, authorUsername, rating, comment, timestamp) " +
+                "VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT(courseID, authorUsername) DO UPDATE SET " +
+                "rating = excluded.rating, comment = excluded.comment, timestamp = excluded.timestamp";
+        try (PreparedStatement statement = rawConnection.prepareStatement(upsert)) {
+            for (Review review : reviews) {
+                statement.setInt(1, review.getCourseID());
+                statement.setString(2, review.getAuthorUsername());
+                statement.setDouble(3, review.getRating());
+                statement.setString(4, review.getComment());
+                statement.setString(5, "2024-01-01 00:00:00");
+                statement.executeUpdate();
+            }
+        }
+        rawConnection.commit();
+    }
+}
@@ -0,0 +1,178 @@
+package edu.virginia.sde.reviews;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Database calls the screens make, against a generated SQLite file whose size is set with the
+ * courses, users and reviewsPerUser parameters. Each benchmark is reported both as throughput and as a
+ * sampled latency distribution (p50, p90, p99, ...), so a query or schema change can be compared by numbers.
+ *
+ * Run with: ./gradlew jmh
+ * or, for one benchmark at a larger size: ./gradlew jmh -PjmhIncludes=DatabaseBenchmark.searchCourses -PjmhParams=courses=20000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    private static final String[] SUBJECTS = {"CS", "MATH", "APMA", "ECE", "PHYS", "CHEM", "STS", "ECON"};
+    private static final int REVIEW_BATCH = 100;
+    //only writes the reviews deleteReview removes, so deleting never eats into the generated data
+    private static final String DELETER = "benchmark-deleter";
+
+    @Param({"2000"})
+    public int courses;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"20"})
+    public int reviewsPerUser;
+
+    private Path databaseFile;
+    private Database database;
+    private List<Course> catalog;
+    private List<Review> reviewBatch;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("database-benchmark", ".sqlite3");
+        database = new Database(databaseFile.toString());
+        database.connect();
+        database.createTables();
+
+        List<Course> newCourses = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            String subject = SUBJECTS[i % SUBJECTS.length];
+            newCourses.add(new Course(0, "Topics in " + subject + " " + i, subject, 1000 + (i / SUBJECTS.length) % 9000));
+        }
+        database.importCourses(newCourses);
+        catalog = database.getAllCourses();
+
+        for (int i = 0; i < users; i++) {
+            database.createUser(username(i), "password" + i);
+        }
+        database.createUser(DELETER, "password");
+
+        Random data = new Random(7);
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            for (int j = 0; j < reviewsPerUser; j++) {
+                Course course = catalog.get(data.nextInt(catalog.size()));
+                reviews.add(new Review(0, course.getCourseID(), username(i), 1 + data.nextInt(5),
+                        "Review " + j + " by " + username(i) + " of " + course.getTitle()));
+                if (reviews.size() == 10_000) {
+                    database.addReviews(reviews);
+                    reviews.clear();
+                }
+            }
+        }
+        database.addReviews(reviews);
+
+        //the batch addReviews re-submits: upserts over reviews that already exist, so the table doesn't grow
+        reviewBatch = new ArrayList<>(REVIEW_BATCH);
+        for (int i = 0; i < REVIEW_BATCH; i++) {
+            reviewBatch.add(new Review(0, catalog.get(i % catalog.size()).getCourseID(), username(0),
+                    1 + i % 5, "Benchmark batch review " + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException, SQLException {
+        database.disconnect();
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+
+    private static String username(int i) {
+        return "user" + i;
+    }
+
+    private Course randomCourse() {
+        return catalog.get(random.nextInt(catalog.size()));
+    }
+
+    private User randomUser() {
+        return new User(username(random.nextInt(users)), "");
+    }
+
+    /**
+     * The filters for searchCourses, one benchmark run per combination of filled-in fields: each letter of
+     * the parameter turns on a filter (s = subject, n = number, t = title), and "none" leaves all blank.
+     */
+    @State(Scope.Benchmark)
+    public static class SearchFilters {
+        @Param({"none", "s", "n", "t", "sn", "st", "nt", "snt"})
+        public String filters;
+    }
+
+    @Benchmark
+    public boolean validateUser() throws SQLException {
+        int i = random.nextInt(users);
+        return database.validateUser(username(i), "password" + i);
+    }
+
+    @Benchmark
+    public List<Course> searchCourses(SearchFilters search) throws SQLException {
+        Course course = randomCourse();
+        String subject = search.filters.contains("s") ? course.getMnemonic() : "";
+        String number = search.filters.contains("n") ? String.valueOf(course.getNumber()) : "";
+        String title = search.filters.contains("t") ? "Topics" : "";
+        return database.searchCourses(subject, number, title);
+    }
+
+    @Benchmark
+    public List<Course> getAllCourses() throws SQLException {
+        return database.getAllCourses();
+    }
+
+    @Benchmark
+    public List<Review> getReviewsByCourse() throws SQLException {
+        return database.getReviewsByCourse(randomCourse());
+    }
+
+    @Benchmark
+    public List<Review> getReviewsByUser() throws SQLException {
+        return database.getReviewsByUser(randomUser());
+    }
+
+    @Benchmark
+    public void addReviews() throws SQLException {
+        database.addReviews(reviewBatch);
+    }
+
+    /**
+     * Deleting needs a review to delete, so each invocation first puts one back. The re-insert happens in an
+     * invocation-level setup and is not part of the measured time.
+     */
+    @State(Scope.Thread)
+    public static class DeletableReview {
+        Review review;
+
+        @Setup(Level.Invocation)
+        public void insert(DatabaseBenchmark benchmark) throws SQLException {
+            Course course = benchmark.randomCourse();
+            review = new Review(0, course.getCourseID(), DELETER, 3, "To be deleted");
+            benchmark.database.addReviews(List.of(review));
+        }
+    }
+
+    @Benchmark
+    public void deleteReview(DeletableReview deletable) throws SQLException {
+        database.deleteReview(deletable.review.getCourseID(), deletable.review.getAuthorUsername());
+    }
+}
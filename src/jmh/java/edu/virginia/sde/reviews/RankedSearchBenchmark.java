@@ -0,0 +1,132 @@
+package edu.virginia.sde.reviews;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what relevance ranking costs on a large catalog. searchCoursesRanked is compared with the strict
+ * searchCoursesPage it is an alternative to, and the in-memory benchmarks rank the whole rated catalog
+ * through CourseRanker's bounded heap and, for comparison, by scoring everything and sorting it, so the
+ * heap's saving over a full sort is measured on its own.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=RankedSearchBenchmark
+ * or at another size: ./gradlew jmh -PjmhIncludes=RankedSearchBenchmark -PjmhParams=courses=20000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RankedSearchBenchmark {
+
+    private static final String[] SUBJECTS = {"CS", "MATH", "APMA", "ECE", "PHYS", "CHEM", "STS", "ECON"};
+    private static final String[] TITLE_WORDS = {"introduction", "advanced", "data", "theory", "systems",
+            "design", "analysis", "methods", "seminar", "topics", "applied", "foundations"};
+    private static final int LIMIT = 50;
+    private static final int USERS = 1000;
+    private static final int REVIEWS_PER_USER = 20;
+
+    @Param({"100000"})
+    public int courses;
+
+    private Path databaseFile;
+    private Database database;
+    private List<RatedCourse> ratedCatalog;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("ranked-search-benchmark", ".sqlite3");
+        database = new Database(databaseFile.toString());
+        database.connect();
+        database.createTables();
+
+        Random data = new Random(7);
+        List<Course> newCourses = new ArrayList<>(courses);
+        for (int i = 0; i < courses; i++) {
+            String subject = SUBJECTS[i % SUBJECTS.length];
+            String title = TITLE_WORDS[data.nextInt(TITLE_WORDS.length)] + " "
+                    + TITLE_WORDS[data.nextInt(TITLE_WORDS.length)] + " " + i;
+            newCourses.add(new Course(0, title, subject, 1000 + (i / SUBJECTS.length) % 9000));
+        }
+        database.importCourses(newCourses);
+        List<Course> catalog = database.getAllCourses();
+
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            database.createUser("user" + i, "password" + i);
+            for (int j = 0; j < REVIEWS_PER_USER; j++) {
+                Course course = catalog.get(data.nextInt(catalog.size()));
+                reviews.add(new Review(0, course.getCourseID(), "user" + i, 1 + data.nextInt(5), "Review " + j));
+            }
+        }
+        database.addReviews(reviews);
+
+        ratedCatalog = database.searchCoursesWithRatings("", "", "");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException, SQLException {
+        database.disconnect();
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+
+    private String randomSubject() {
+        return SUBJECTS[random.nextInt(SUBJECTS.length)];
+    }
+
+    private String randomNumberPrefix() {
+        return String.valueOf(1 + random.nextInt(9)) + random.nextInt(10);
+    }
+
+    private String randomTitleWord() {
+        return TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+    }
+
+    @Benchmark
+    public Page<RatedCourse> strictSearch() throws SQLException {
+        return database.searchCoursesPage(randomSubject(), "", randomTitleWord(), null, LIMIT);
+    }
+
+    @Benchmark
+    public List<RatedCourse> rankedSearch() throws SQLException {
+        return database.searchCoursesRanked(randomSubject(), randomNumberPrefix(), randomTitleWord(), LIMIT);
+    }
+
+    @Benchmark
+    public List<RatedCourse> rankWithBoundedHeap() {
+        CourseRanker ranker = new CourseRanker(randomSubject(), randomNumberPrefix(), randomTitleWord(), LIMIT);
+        for (RatedCourse rated : ratedCatalog) {
+            ranker.offer(rated);
+        }
+        return ranker.results();
+    }
+
+    @Benchmark
+    public List<RatedCourse> rankWithFullSort() {
+        CourseRanker ranker = new CourseRanker(randomSubject(), randomNumberPrefix(), randomTitleWord(), LIMIT);
+        record Scored(RatedCourse course, double score) {}
+        List<Scored> scored = new ArrayList<>(ratedCatalog.size());
+        for (RatedCourse rated : ratedCatalog) {
+            scored.add(new Scored(rated, ranker.score(rated)));
+        }
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed());
+        List<RatedCourse> best = new ArrayList<>(LIMIT);
+        for (int i = 0; i < LIMIT && i < scored.size(); i++) {
+            best.add(scored.get(i).course());
+        }
+        return best;
+    }
+}
@@ -0,0 +1,120 @@
+package edu.virginia.sde.reviews;
+
+import javafx.scene.Scene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings the app up in stages so the login screen never waits on anything slow. Connecting to the database
+ * and running its migrations starts before the JavaFX toolkit does, and warming the course catalog follows
+ * as soon as the database is ready. Parsing the other screens waits only for the login screen's first frame.
+ * Each stage runs on a background thread, so the stages overlap with each other and with the FX thread.
+ *
+ * Each milestone is logged with the time since the JVM started: the database being ready, the first frame,
+ * being interactive (first frame shown and database ready, so the user can log in), and all background
+ * work finishing.
+ */
+public class AppStartup {
+
+    private static final Logger log = LoggerFactory.getLogger(AppStartup.class);
+
+    private final Database database;
+    private final CourseCatalog catalog;
+    private final ExecutorService executor;
+    private final CompletableFuture<Void> databaseReady = new CompletableFuture<>();
+    private final CompletableFuture<Void> firstFrame = new CompletableFuture<>();
+    private final CompletableFuture<Void> screensPreloaded = new CompletableFuture<>();
+
+    public AppStartup(Database database, CourseCatalog catalog) {
+        this.database = database;
+        this.catalog = catalog;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts connecting to the database, followed by the catalog warm-up. Call before launching JavaFX so
+     * the two overlap.
+     */
+    public void startDatabase() {
+        executor.execute(() -> {
+            try {
+                database.connect();
+                database.createTables();
+                //per-method query timings, viewable in jconsole or VisualVM
+                database.getMetrics().registerMBeans("course_reviews.db");
+                log.info("Database ready at {} ms", uptimeMillis());
+                databaseReady.complete(null);
+            } catch (Exception e) {
+                log.error("Failed to initialize the database", e);
+                databaseReady.completeExceptionally(e);
+            }
+        });
+
+        CompletableFuture<Void> catalogWarm = databaseReady.thenRunAsync(() -> {
+            try {
+                int courses = catalog.getAllCourses().size();
+                log.info("Course catalog warmed with {} courses at {} ms", courses, uptimeMillis());
+            } catch (Exception e) {
+                //not fatal: the catalog loads itself on first use instead
+                log.warn("Could not warm the course catalog", e);
+            }
+        }, executor);
+
+        CompletableFuture.allOf(databaseReady, firstFrame)
+                .thenRun(() -> log.info("Interactive at {} ms", uptimeMillis()));
+        CompletableFuture.allOf(catalogWarm, screensPreloaded).whenComplete((ignored, error) -> {
+            executor.shutdown();
+            log.info("Startup finished at {} ms", uptimeMillis());
+        });
+    }
+
+    /**
+     * Watches the scene for its first rendered pulse, records the first frame, and then preloads the
+     * remaining screens in the background.
+     */
+    public void awaitFirstFrame(Scene scene, Navigator navigator) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            log.info("First frame at {} ms", uptimeMillis());
+            firstFrame.complete(null);
+            navigator.preloadAll(executor).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.warn("Could not preload every screen; the rest load on first visit", error);
+                } else {
+                    log.info("Screens preloaded at {} ms", uptimeMillis());
+                }
+                screensPreloaded.complete(null);
+            });
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    //completes once the database is connected and migrated, or fails with the reason it couldn't be
+    CompletableFuture<Void> whenDatabaseReady() {
+        return databaseReady;
+    }
+
+    /**
+     * Like whenDatabaseReady, but returns a copy the caller is free to cancel, such as a screen that
+     * cancels its requests when hidden.
+     */
+    public CompletableFuture<Void> databaseReady() {
+        return databaseReady.copy();
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,103 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs Database calls on dedicated background threads so that no SQL runs on the JavaFX Application Thread.
+ * Every call returns a CompletableFuture; controllers hand the results back to the FX thread through
+ * {@link ScreenRequests}. Calls made while the database is still starting up wait for it, and fail with the
+ * startup error if it couldn't be opened.
+ */
+public class AsyncDatabase {
+
+    @FunctionalInterface
+    public interface DatabaseCall<T> {
+        T call(Database database) throws SQLException;
+    }
+
+    private final Database database;
+    private final ExecutorService executor;
+    private final ReviewWriteQueue reviewWrites;
+    private final CompletableFuture<?> ready;
+
+    public AsyncDatabase(Database database) {
+        this(database, CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * @param ready completes once the database is connected and its tables exist
+     */
+    public AsyncDatabase(Database database, CompletableFuture<?> ready) {
+        this.database = database;
+        this.ready = ready;
+        //one thread per pooled reader, plus one, so that with every reader connection busy a thread is still free
+        //to run a call on the writer connection. All calls share one FIFO queue, so a call still starts only after
+        //those submitted before it; review writes skip that queue through reviewWrites' own thread
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(database.getReaderPoolSize() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "database-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reviewWrites = new ReviewWriteQueue(database);
+    }
+
+    /**
+     * Queues a call against the database. If the returned future is cancelled before the call starts, the call
+     * is skipped; once started, it runs to completion and its result is dropped.
+     */
+    public <T> CompletableFuture<T> submit(DatabaseCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(call.call(database));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (ready.isDone() && !ready.isCompletedExceptionally()) {
+            executor.execute(task);
+        } else {
+            ready.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    executor.execute(task);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Queues a review to be added, or updated if the author already reviewed the course. The write is committed
+     * together with any others that arrive around the same time; the future completes once it is committed.
+     */
+    public CompletableFuture<Void> submitReview(Review review) {
+        return reviewWrites.upsert(review);
+    }
+
+    /**
+     * Queues the deletion of the review an author wrote for a course, committed the same way as submitReview.
+     */
+    public CompletableFuture<Void> deleteReview(int courseID, String authorUsername) {
+        return reviewWrites.delete(courseID, authorUsername);
+    }
+
+    /**
+     * Commits any queued review writes, then stops accepting calls and waits briefly for the one in progress, so the connection can be closed safely.
+     */
+    public void shutdown() throws InterruptedException {
+        reviewWrites.shutdown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A connection together with a cache of the statements prepared on it, keyed by SQL text, so that each query
+ * is compiled once per connection instead of on every call. Statements handed out by {@link #prepare} stay
+ * open and must not be closed by the caller; close their result sets instead. Like the connection itself, a
+ * CachedConnection must only be used by one thread at a time.
+ *
+ * The connection also remembers which statements were prepared since {@link #startCall}, so a slow call can be
+ * logged with the SQL it actually ran. Nothing is recorded per bind: the types of the bound parameters are
+ * only read back, from the statements' parameter metadata, when a slow call asks for them.
+ */
+class CachedConnection implements AutoCloseable {
+
+    private static final int MAX_CACHED_STATEMENTS = 128;
+
+    //the SQL and bound parameter types of a statement a call ran
+    record StatementUse(String sql, List<String> parameterTypes) {}
+
+    private final Connection connection;
+    private final Set<String> used = new LinkedHashSet<>();
+    private final Map<String, PreparedStatement> statements =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= MAX_CACHED_STATEMENTS) {
+                        return false;
+                    }
+                    try {
+                        eldest.getValue().close();
+                    } catch (SQLException ignored) {
+                        //the statement is being thrown away either way
+                    }
+                    return true;
+                }
+            };
+
+    CachedConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the cached statement for this SQL, preparing it the first time it is asked for.
+     * Parameters and batches left over from the previous use are cleared.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        } else {
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+        used.add(sql);
+        return statement;
+    }
+
+    //forgets the statements used so far, so getStatementUses only reports what the next call prepares
+    void startCall() {
+        used.clear();
+    }
+
+    /**
+     * Returns the statements prepared since startCall, with the types of the parameters still bound to each.
+     * A batch's parameters are cleared once it runs, so they read as NULL.
+     */
+    List<StatementUse> getStatementUses() {
+        List<StatementUse> uses = new ArrayList<>(used.size());
+        for (String sql : used) {
+            uses.add(new StatementUse(sql, parameterTypes(statements.get(sql))));
+        }
+        return uses;
+    }
+
+    //the driver reports each parameter's type from the value bound to it
+    private static List<String> parameterTypes(PreparedStatement statement) {
+        List<String> types = new ArrayList<>();
+        if (statement == null) {
+            return types;
+        }
+        try {
+            ParameterMetaData metaData = statement.getParameterMetaData();
+            for (int i = 1; i <= metaData.getParameterCount(); i++) {
+                types.add(metaData.getParameterTypeName(i));
+            }
+        } catch (SQLException e) {
+            types.add("unknown (" + e.getMessage() + ")");
+        }
+        return types;
+    }
+
+    //runs a one-off statement, such as DDL, without caching it
+    void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    boolean isClosed() throws SQLException {
+        return connection.isClosed();
+    }
+
+    void commit() throws SQLException {
+        connection.commit();
+    }
+
+    void rollback() throws SQLException {
+        connection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        used.clear();
+        connection.close();
+    }
+}
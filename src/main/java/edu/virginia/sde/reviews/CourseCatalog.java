@@ -0,0 +1,270 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of the course catalog, kept in front of the Database. The catalog is read from SQLite once,
+ * the first time it is needed, and held as an immutable snapshot with lookups by ID, by subject, and by
+ * subject and number. Courses added through {@link #addCourse} are written to the database first and then
+ * into a new snapshot, so the cache never has to be reloaded for changes made by this app.
+ *
+ * Each snapshot also holds a {@link CourseTrigramIndex} over its courses for {@link #fuzzySearchPage}, so
+ * misspelled searches are answered from memory rather than by scanning the courses table, and sorted subject
+ * and course keys for {@link #complete}, which drives autocompletion as the user types.
+ *
+ * The catalog has a version number that goes up each time a new snapshot is installed and each time a commit
+ * changes a course's reviews, since search results carry each course's rating. A view can remember the
+ * version it was drawn from and compare it with {@link #getVersion()} to tell whether it is out of date.
+ */
+public class CourseCatalog {
+
+    private record Snapshot(List<Course> courses,
+                            Map<Integer, Course> byID,
+                            Map<String, List<Course>> bySubject,
+                            Map<String, List<Course>> bySubjectAndNumber,
+                            CourseTrigramIndex trigrams,
+                            PrefixIndex subjects,
+                            PrefixIndex subjectsAndNumbers) {}
+
+    //how long a fuzzy search may spend matching before it ranks what it has matched so far
+    private static final long FUZZY_BUDGET_NANOS = 20_000_000;
+    //a subject, optionally followed by the start of a course number: "cs", "CS ", "CS 31", "cs31"
+    private static final Pattern COMPLETABLE = Pattern.compile("([A-Za-z]+)(\\s*\\d*)\\s*");
+
+    private final Database database;
+    private volatile Snapshot snapshot;
+    //bumped only after the change it stands for is visible, so data read at a version is never older than it
+    private final AtomicLong version = new AtomicLong();
+
+    public CourseCatalog(Database database) {
+        this.database = database;
+        database.addReviewChangeListener(courseID -> version.incrementAndGet());
+    }
+
+    /**
+     * Returns the catalog's current version. It starts at 0 and goes up with every change: each snapshot
+     * loaded or installed, each invalidation, and each commit that changes a course's reviews, including
+     * review commits made before the catalog was first loaded.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean isStale(long version) {
+        return version != getVersion();
+    }
+
+    //every course, ordered by courseID
+    public List<Course> getAllCourses() throws SQLException {
+        return load().courses();
+    }
+
+    //returns the course with this ID, or null if there isn't one
+    public Course getCourse(int courseID) throws SQLException {
+        return load().byID().get(courseID);
+    }
+
+    //every course under a subject mnemonic, ignoring case
+    public List<Course> getCoursesBySubject(String subject) throws SQLException {
+        return load().bySubject().getOrDefault(subject.toUpperCase(), List.of());
+    }
+
+    //every course with this subject mnemonic (ignoring case) and number; there can be more than one title
+    public List<Course> getCourses(String subject, int number) throws SQLException {
+        return load().bySubjectAndNumber().getOrDefault(subjectAndNumber(subject, number), List.of());
+    }
+
+    /**
+     * Completions for what has been typed into a subject field: subject mnemonics while only letters have been
+     * typed, such as "CS" for "c", and subject and number keys once digits follow, such as "CS 3140" for
+     * "cs 31". Answered from memory without waiting on the database, so it is safe to call on the FX thread;
+     * until the catalog has been loaded there are no completions.
+     */
+    public List<String> complete(String typed, int limit) {
+        Snapshot current = snapshot;
+        Matcher matcher = COMPLETABLE.matcher(typed.stripLeading());
+        if (current == null || !matcher.matches()) {
+            return List.of();
+        }
+        String subject = matcher.group(1), number = matcher.group(2);
+        if (number.isEmpty()) {
+            return current.subjects().complete(subject, limit);
+        }
+        return current.subjectsAndNumbers().complete(subject + " " + number.strip(), limit);
+    }
+
+    /**
+     * Adds a course to the database and, if it was new, to the catalog. The new snapshot is built outside the
+     * lock, so lookups and other adds aren't held up while it is indexed; it is only installed if no other
+     * change replaced the snapshot it was built from in the meantime, and is rebuilt from that change if so.
+     *
+     * @return the new course, or null if the course already exists
+     * @throws SQLException
+     */
+    public Course addCourse(String subject, int number, String title) throws SQLException {
+        Course course = database.createCourse(subject, number, title);
+        if (course == null) {
+            return null;
+        }
+        while (true) {
+            Snapshot current = snapshot;
+            Snapshot updated = null;
+            //a snapshot loaded after the commit already has the course
+            if (current != null && !current.byID().containsKey(course.getCourseID())) {
+                List<Course> courses = new ArrayList<>(current.courses());
+                courses.add(course);
+                updated = index(courses);
+            }
+            synchronized (this) {
+                if (snapshot == current) {
+                    //with no snapshot, load holds the lock while it reads, so the next one reads the course
+                    if (updated != null) {
+                        snapshot = updated;
+                    }
+                    version.incrementAndGet();
+                    return course;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the in-memory catalog so the next lookup reloads it, for when courses were changed by something
+     * other than this catalog.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Same results as Database.searchCoursesPage. Searches without a title are answered from memory, with only
+     * the page's review aggregates read from the database by primary key; title searches need the full-text
+     * index and go to the database.
+     */
+    public Page<RatedCourse> searchPage(String subject, String number, String title, String cursor, int limit)
+            throws SQLException {
+        if (!title.isEmpty()) {
+            return database.searchCoursesPage(subject, number, title, cursor, limit);
+        }
+
+        List<Course> candidates;
+        if (!subject.isEmpty() && !number.isEmpty()) {
+            candidates = getCourses(subject, Integer.parseInt(number));
+        } else if (!subject.isEmpty()) {
+            candidates = getCoursesBySubject(subject);
+        } else {
+            candidates = getAllCourses();
+        }
+        int courseNumber = number.isEmpty() ? 0 : Integer.parseInt(number);
+        int afterID = cursor == null ? 0 : Database.parseCursor(cursor).id();
+
+        //candidates are ordered by courseID, so the page starts just past the cursor
+        int start = firstAfter(candidates, afterID);
+        List<Course> courses = new ArrayList<>();
+        String nextCursor = null;
+        for (int i = start; i < candidates.size(); i++) {
+            Course course = candidates.get(i);
+            if (!number.isEmpty() && course.getNumber() != courseNumber) {
+                continue;
+            }
+            if (limit > 0 && courses.size() == limit) {
+                nextCursor = String.valueOf(courses.get(limit - 1).getCourseID());
+                break;
+            }
+            courses.add(course);
+        }
+
+        return new Page<>(rate(courses), nextCursor);
+    }
+
+    /**
+     * Returns up to limit courses whose mnemonic, number and title best match the query, best match first,
+     * tolerating misspellings. The matching runs in memory; only the courses' review aggregates are read
+     * from the database. Results come as a single page with no next cursor.
+     */
+    public Page<RatedCourse> fuzzySearchPage(String query, int limit) throws SQLException {
+        List<Course> courses = load().trigrams().search(query, limit, FUZZY_BUDGET_NANOS);
+        return new Page<>(rate(courses), null);
+    }
+
+    /**
+     * Returns up to limit courses matching any of the fields, best match first as scored by CourseRanker.
+     * Needs the full-text index and every course's review aggregates, so it goes to the database. Results come
+     * as a single page with no next cursor.
+     */
+    public Page<RatedCourse> rankedSearchPage(String subject, String number, String title, int limit)
+            throws SQLException {
+        return new Page<>(database.searchCoursesRanked(subject, number, title, limit), null);
+    }
+
+    //pairs each course with its review aggregates, keeping the order
+    private List<RatedCourse> rate(List<Course> courses) throws SQLException {
+        Map<Integer, CourseStats> stats = database.getCourseStats(courses);
+        List<RatedCourse> rated = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            CourseStats courseStats = stats.get(course.getCourseID());
+            rated.add(new RatedCourse(course, courseStats.getReviewCount(), courseStats.getAverageRating()));
+        }
+        return rated;
+    }
+
+    private static int firstAfter(List<Course> courses, int courseID) {
+        int low = 0, high = courses.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (courses.get(mid).getCourseID() <= courseID) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Snapshot load() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = index(database.getAllCourses());
+                version.incrementAndGet();
+            }
+            return snapshot;
+        }
+    }
+
+    //builds a snapshot over the given courses
+    private static Snapshot index(List<Course> courses) {
+        List<Course> sorted = new ArrayList<>(courses);
+        sorted.sort(Comparator.comparingInt(Course::getCourseID));
+
+        Map<Integer, Course> byID = new HashMap<>();
+        Map<String, List<Course>> bySubject = new HashMap<>();
+        Map<String, List<Course>> bySubjectAndNumber = new HashMap<>();
+        for (Course course : sorted) {
+            byID.put(course.getCourseID(), course);
+            bySubject.computeIfAbsent(course.getMnemonic().toUpperCase(), key -> new ArrayList<>()).add(course);
+            bySubjectAndNumber.computeIfAbsent(subjectAndNumber(course.getMnemonic(), course.getNumber()),
+                    key -> new ArrayList<>()).add(course);
+        }
+        bySubject.replaceAll((key, list) -> Collections.unmodifiableList(list));
+        bySubjectAndNumber.replaceAll((key, list) -> Collections.unmodifiableList(list));
+
+        List<Course> courseList = Collections.unmodifiableList(sorted);
+        return new Snapshot(courseList, byID, bySubject, bySubjectAndNumber,
+                new CourseTrigramIndex(courseList),
+                new PrefixIndex(bySubject.keySet()),
+                new PrefixIndex(bySubjectAndNumber.keySet()));
+    }
+
+    private static String subjectAndNumber(String subject, int number) {
+        return subject.toUpperCase() + " " + number;
+    }
+}
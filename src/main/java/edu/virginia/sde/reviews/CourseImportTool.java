@@ -0,0 +1,80 @@
+package edu.virginia.sde.reviews;
+
+import java.nio.file.Path;
+
+/**
+ * Command-line entry point for loading a registrar catalog into the database:
+ *
+ *     ./gradlew importCourses --args="catalog.csv [--db course_reviews.db] [--format csv|ndjson] [--batch-size 5000]"
+ *
+ * Prints how many rows were read, inserted and skipped as duplicates, the import rate, and every rejected row.
+ * The app can stay open while this runs; restart it to see the new courses.
+ */
+public class CourseImportTool {
+
+    private static final String USAGE =
+            "usage: CourseImportTool <file> [--db <sqlite file>] [--format csv|ndjson] [--batch-size <rows>]";
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    //0 on success, 1 if the import failed and 2 for bad arguments
+    static int run(String[] args) {
+        String file = null;
+        String databaseFile = "course_reviews.db";
+        RecordFormat format = null;
+        int batchSize = CourseImporter.DEFAULT_BATCH_SIZE;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--db" -> databaseFile = args[++i];
+                    case "--format" -> format = RecordFormat.valueOf(args[++i].toUpperCase());
+                    case "--batch-size" -> batchSize = Integer.parseInt(args[++i]);
+                    default -> {
+                        if (file != null) {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                        file = args[i];
+                    }
+                }
+            }
+            if (file == null) {
+                throw new IllegalArgumentException("No file given");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (format == null) {
+            format = RecordFormat.fromFileName(file);
+        }
+
+        Database database = new Database(databaseFile, 1);
+        try {
+            database.connect();
+            database.createTables();
+            CourseImporter.Report report = new CourseImporter(database, batchSize).importFile(Path.of(file), format);
+
+            System.out.printf("Read %d rows in %.2f s (%.0f rows/s)%n",
+                    report.rows(), report.elapsedNanos() / 1e9, report.rowsPerSecond());
+            System.out.printf("Inserted %d new courses, skipped %d duplicates, rejected %d rows%n",
+                    report.inserted(), report.duplicates(), report.rejected().size());
+            for (CourseImporter.Rejection rejection : report.rejected()) {
+                System.out.printf("  line %d: %s  [%s]%n", rejection.line(), rejection.reason(), rejection.text());
+            }
+        } catch (Exception e) {
+            System.err.println("Import failed: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            try {
+                database.disconnect();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return 0;
+    }
+}
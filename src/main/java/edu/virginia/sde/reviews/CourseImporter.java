@@ -0,0 +1,322 @@
+package edu.virginia.sde.reviews;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk-loads a course catalog from a CSV or NDJSON file. The file is read one line at a time, so its size
+ * doesn't matter; each row is checked with the same rules as the Add Course form, and valid rows are written
+ * in large batches of INSERT OR IGNORE, one transaction per batch, so courses that already exist are skipped
+ * by the unique course key.
+ *
+ * CSV files need a header row naming the subject, number and title columns, in any order. Fields may be
+ * quoted, with "" for a literal quote, but a quoted field can't span lines. NDJSON files hold one flat object
+ * per line with subject, number and title keys.
+ */
+public class CourseImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 5000;
+
+    //a line that was not imported, and why
+    public record Rejection(long line, String reason, String text) {}
+
+    public record Report(long rows, long inserted, long duplicates, List<Rejection> rejected, long elapsedNanos) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    private final Database database;
+    private final int batchSize;
+
+    public CourseImporter(Database database) {
+        this(database, DEFAULT_BATCH_SIZE);
+    }
+
+    public CourseImporter(Database database, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    public Report importFile(Path file, RecordFormat format) throws IOException, SQLException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, format);
+        }
+    }
+
+    public Report importFrom(Reader source, RecordFormat format) throws IOException, SQLException {
+        long start = System.nanoTime();
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+
+        long rows = 0, inserted = 0;
+        List<Rejection> rejected = new ArrayList<>();
+        List<Course> batch = new ArrayList<>(batchSize);
+        int[] csvColumns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == RecordFormat.CSV && csvColumns == null) {
+                csvColumns = readCsvHeader(line);
+                continue;
+            }
+
+            rows++;
+            String subject, number, title;
+            try {
+                if (format == RecordFormat.CSV) {
+                    List<String> fields = parseCsvLine(line);
+                    subject = field(fields, csvColumns[0]);
+                    number = field(fields, csvColumns[1]);
+                    title = field(fields, csvColumns[2]);
+                } else {
+                    Map<String, String> object = parseJsonObject(line);
+                    subject = object.getOrDefault("subject", "");
+                    number = object.getOrDefault("number", "");
+                    title = object.getOrDefault("title", "");
+                }
+            } catch (IllegalArgumentException e) {
+                rejected.add(new Rejection(lineNumber, e.getMessage(), line));
+                continue;
+            }
+
+            subject = subject.trim().toUpperCase(Locale.ROOT);
+            number = number.trim();
+            title = title.trim();
+            String invalid = CourseValidator.validate(subject, number, title);
+            if (invalid != null) {
+                rejected.add(new Rejection(lineNumber, invalid, line));
+                continue;
+            }
+
+            batch.add(new Course(0, title, subject, Integer.parseInt(number)));
+            if (batch.size() == batchSize) {
+                inserted += database.importCourses(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            inserted += database.importCourses(batch);
+        }
+
+        long accepted = rows - rejected.size();
+        return new Report(rows, inserted, accepted - inserted, rejected, System.nanoTime() - start);
+    }
+
+    //finds the subject, number and title columns in a CSV header row
+    private static int[] readCsvHeader(String line) throws IOException {
+        List<String> names;
+        try {
+            names = parseCsvLine(line);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unreadable CSV header: " + e.getMessage());
+        }
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < names.size(); i++) {
+            switch (names.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "subject" -> columns[0] = i;
+                case "number" -> columns[1] = i;
+                case "title" -> columns[2] = i;
+                default -> { }
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IOException("The CSV header must name subject, number and title columns, but was: " + line);
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column >= fields.size()) {
+            throw new IllegalArgumentException("Expected at least " + (column + 1) + " fields but found " + fields.size());
+        }
+        return fields.get(column);
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected text after a quoted field");
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    field.append(line.charAt(i++));
+                }
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i >= line.length()) {
+                return fields;
+            }
+            i++; //skip the comma
+        }
+    }
+
+    //parses one flat JSON object; strings, numbers, booleans and null are allowed as values, nesting is not
+    static Map<String, String> parseJsonObject(String line) {
+        JsonReader json = new JsonReader(line);
+        Map<String, String> object = new HashMap<>();
+        json.expect('{');
+        if (!json.consume('}')) {
+            do {
+                String key = json.readString();
+                json.expect(':');
+                object.put(key, json.readValue());
+            } while (json.consume(','));
+            json.expect('}');
+        }
+        json.expectEnd();
+        return object;
+    }
+
+    private static class JsonReader {
+        private final String text;
+        private int position;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + position);
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw new IllegalArgumentException("Unexpected text after the object at position " + position);
+            }
+        }
+
+        String readValue() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw new IllegalArgumentException("Missing value at end of line");
+            }
+            char c = text.charAt(position);
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("Nested values are not supported");
+            }
+            int start = position;
+            while (position < text.length() && ",}".indexOf(text.charAt(position)) < 0
+                    && !Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.equals("null")) {
+                return "";
+            }
+            if (!literal.matches("true|false|-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                throw new IllegalArgumentException("Invalid value: " + literal);
+            }
+            return literal;
+        }
+
+        String readString() {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw new IllegalArgumentException("Expected a string at position " + position);
+            }
+            position++;
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated string");
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("Invalid unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Invalid unicode escape");
+                        }
+                        position += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape: \\" + escaped);
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
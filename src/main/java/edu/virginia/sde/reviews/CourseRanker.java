@@ -0,0 +1,123 @@
+package edu.virginia.sde.reviews;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Scores courses against a search and keeps the best few. Unlike the strict filters of searchCourses, every
+ * filled-in field only adds to a course's score, so a course matching some of them still ranks:
+ *
+ *   - the subject matching the mnemonic exactly, ignoring case
+ *   - the number being a prefix of the course number, counting more the more digits match
+ *   - the fraction of the title's words that start a word of the course title
+ *   - the number of reviews, with diminishing returns
+ *   - the average rating, trusted more the more reviews it is based on
+ *
+ * Offered courses go through a min-heap bounded at the limit, so ranking n candidates costs O(n log limit)
+ * and holds only limit of them, rather than sorting all n. Not thread safe.
+ */
+public class CourseRanker {
+
+    private static final double SUBJECT_WEIGHT = 4.0;
+    private static final double NUMBER_WEIGHT = 3.0;
+    private static final double TITLE_WEIGHT = 3.0;
+    private static final double REVIEW_COUNT_WEIGHT = 1.0;
+    private static final double RATING_WEIGHT = 1.0;
+    //the review count at which the review count signal is half its weight, and the rating is half trusted
+    private static final double REVIEWS_HALF_WEIGHT = 10.0;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private record Scored(RatedCourse course, double score) {}
+
+    //worst first: lowest score, then highest courseID
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score)
+            .thenComparing(scored -> scored.course().course().getCourseID(), Comparator.reverseOrder());
+
+    private final String subject;
+    private final String number;
+    private final String[] titleWords;
+    private final int limit;
+    private final PriorityQueue<Scored> best;
+
+    public CourseRanker(String subject, String number, String title, int limit) {
+        this.subject = subject.trim();
+        this.number = number.trim();
+        this.titleWords = words(title);
+        this.limit = limit;
+        this.best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+    }
+
+    public double score(RatedCourse rated) {
+        Course course = rated.course();
+        double score = 0;
+        if (!subject.isEmpty() && subject.equalsIgnoreCase(course.getMnemonic())) {
+            score += SUBJECT_WEIGHT;
+        }
+        if (!number.isEmpty()) {
+            String courseNumber = String.valueOf(course.getNumber());
+            if (courseNumber.startsWith(number)) {
+                score += NUMBER_WEIGHT * number.length() / courseNumber.length();
+            }
+        }
+        if (titleWords.length > 0) {
+            score += TITLE_WEIGHT * titleOverlap(course.getTitle());
+        }
+        int reviews = rated.reviewCount();
+        double confidence = reviews / (reviews + REVIEWS_HALF_WEIGHT);
+        score += REVIEW_COUNT_WEIGHT * confidence;
+        score += RATING_WEIGHT * confidence * rated.averageRating() / 5.0;
+        return score;
+    }
+
+    //scores the course and keeps it if it is among the best limit offered so far
+    public void offer(RatedCourse rated) {
+        if (limit <= 0) {
+            return;
+        }
+        Scored scored = new Scored(rated, score(rated));
+        if (best.size() == limit) {
+            if (WORST_FIRST.compare(scored, best.peek()) <= 0) {
+                return;
+            }
+            best.poll();
+        }
+        best.add(scored);
+    }
+
+    //the best courses offered, best first. Empties the ranker
+    public List<RatedCourse> results() {
+        RatedCourse[] ranked = new RatedCourse[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().course();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    //the fraction of the search's title words that start some word of the title
+    private double titleOverlap(String title) {
+        String lower = title.toLowerCase();
+        int matched = 0;
+        for (String word : titleWords) {
+            if (startsWord(lower, word)) {
+                matched++;
+            }
+        }
+        return matched / (double) titleWords.length;
+    }
+
+    //scans the title in place rather than splitting it, since this runs for every candidate
+    private static boolean startsWord(String text, String word) {
+        for (int at = text.indexOf(word); at >= 0; at = text.indexOf(word, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] words(String text) {
+        String trimmed = NON_WORD.matcher(text.toLowerCase()).replaceAll(" ").trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split(" ");
+    }
+}
@@ -19,7 +19,7 @@ public class CourseReviewScene extends VBox {
     private Review currentUserReview;
     private final Course course;
     
-    private VBox reviewsContainer;
+    private ListView<Review> reviewsList;
     private VBox addReviewContainer;
     private Label averageRatingLabel;
     private ToggleGroup ratingGroup;
@@ -63,12 +63,11 @@ public class CourseReviewScene extends VBox {
         Label reviewsHeader = new Label("Course Reviews");
         reviewsHeader.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
         
-        reviewsContainer = new VBox(10);
-        ScrollPane scrollPane = new ScrollPane(reviewsContainer);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setPrefHeight(300);
+        reviewsList = new ListView<>();
+        reviewsList.setCellFactory(list -> new ReviewListCell());
+        reviewsList.setPrefHeight(300);
         
-        getChildren().addAll(reviewsHeader, scrollPane);
+        getChildren().addAll(reviewsHeader, reviewsList);
         updateReviewsList();
     }
     
@@ -121,14 +120,23 @@ public class CourseReviewScene extends VBox {
         
         int rating = (Integer) selectedRating.getUserData();
         String comment = commentArea.getText().trim();
-        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        String timestamp = new Timestamp(System.currentTimeMillis()).toString();
         
         if (currentUserReview != null) {
-            currentUserReview.setRating(rating);
-            currentUserReview.setComment(comment);
-            currentUserReview.setTimestamp(timestamp);
+            Review updatedReview = new Review(
+                currentUserReview.getReviewID(),
+                course.getCourseID(),
+                currentUserId,
+                rating,
+                comment,
+                timestamp
+            );
+            reviews.set(reviews.indexOf(currentUserReview), updatedReview);
+            currentUserReview = updatedReview;
         } else {
             Review newReview = new Review(
+                reviews.size() + 1,
+                course.getCourseID(),
                 currentUserId,
                 rating,
                 comment,
@@ -154,27 +162,10 @@ public class CourseReviewScene extends VBox {
     }
     
     private void updateReviewsList() {
-        reviewsContainer.getChildren().clear();
-        
-        for (Review review : reviews) {
-            VBox reviewBox = new VBox(5);
-            reviewBox.setStyle("-fx-border-color: lightgray; -fx-padding: 10; -fx-border-radius: 5;");
-            
-            Label ratingLabel = new Label("Rating: " + review.getRating());
-            Label timestampLabel = new Label("Posted: " + review.getTimestamp().toString());
-            
-            reviewBox.getChildren().addAll(ratingLabel, timestampLabel);
-            
-            if (!review.getComment().isEmpty()) {
-                Label commentLabel = new Label("Comment: " + review.getComment());
-                commentLabel.setWrapText(true);
-                reviewBox.getChildren().add(commentLabel);
-            }
-            
-            reviewsContainer.getChildren().add(reviewBox);
-        }
+        // the list view only builds cells for the visible rows
+        reviewsList.getItems().setAll(reviews);
     }
-    
+
     private void updateAverageRating() {
         if (reviews.isEmpty()) {
             averageRatingLabel.setText("No reviews yet");
@@ -182,7 +173,7 @@ public class CourseReviewScene extends VBox {
         }
         
         double average = reviews.stream()
-            .mapToInt(Review::getRating)
+            .mapToDouble(Review::getRating)
             .average()
             .orElse(0.0);
             
@@ -192,7 +183,7 @@ public class CourseReviewScene extends VBox {
     
     private void checkAndShowUserReview() {
         currentUserReview = reviews.stream()
-            .filter(r -> r.getUserId().equals(currentUserId))
+            .filter(r -> r.getAuthorUsername().equals(currentUserId))
             .findFirst()
             .orElse(null);
             
@@ -200,7 +191,7 @@ public class CourseReviewScene extends VBox {
             addReviewContainer.getChildren().clear();
             
             RadioButton selectedRating = (RadioButton) ratingGroup.getToggles().stream()
-                .filter(t -> t.getUserData().equals(currentUserReview.getRating()))
+                .filter(t -> (Integer) t.getUserData() == (int) currentUserReview.getRating())
                 .findFirst()
                 .orElse(null);
             if (selectedRating != null) {
@@ -243,55 +234,20 @@ public class CourseReviewScene extends VBox {
     
     private void loadDummyData() {
         reviews.add(new Review(
+            1,
+            course.getCourseID(),
             "user456",
             4,
             "Great course! Learned a lot about software development.",
-            Timestamp.valueOf("2024-03-01 10:30:00")
+            "2024-03-01 10:30:00"
         ));
         reviews.add(new Review(
+            2,
+            course.getCourseID(),
             "user789",
             5,
             "Excellent professor and material.",
-            Timestamp.valueOf("2024-02-28 15:45:00")
+            "2024-02-28 15:45:00"
         ));
     }
-    
-    private static class Course {
-        private final String mnemonic;
-        private final String number;
-        private final String title;
-        
-        public Course(String mnemonic, String number, String title) {
-            this.mnemonic = mnemonic;
-            this.number = number;
-            this.title = title;
-        }
-        
-        public String getMnemonic() { return mnemonic; }
-        public String getNumber() { return number; }
-        public String getTitle() { return title; }
-    }
-    
-    private static class Review {
-        private final String userId;
-        private int rating;
-        private String comment;
-        private Timestamp timestamp;
-        
-        public Review(String userId, int rating, String comment, Timestamp timestamp) {
-            this.userId = userId;
-            this.rating = rating;
-            this.comment = comment;
-            this.timestamp = timestamp;
-        }
-        
-        public String getUserId() { return userId; }
-        public int getRating() { return rating; }
-        public String getComment() { return comment; }
-        public Timestamp getTimestamp() { return timestamp; }
-        
-        public void setRating(int rating) { this.rating = rating; }
-        public void setComment(String comment) { this.comment = comment; }
-        public void setTimestamp(Timestamp timestamp) { this.timestamp = timestamp; }
-    }
-}
\ No newline at end of file
+}
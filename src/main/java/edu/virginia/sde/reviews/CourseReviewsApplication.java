@@ -1,37 +1,54 @@
 package edu.virginia.sde.reviews;
 
 import java.io.FileInputStream;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import javafx.scene.layout.Pane;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
 public class CourseReviewsApplication extends Application {
 
     private static Database database;
-    private static String databaseError = null;
+    private static AsyncDatabase asyncDatabase;
+    private static CourseCatalog courseCatalog;
+    private static ReviewCache reviewCache;
+    private static Navigator navigator;
+    private static AppStartup startup;
 
     public static Database getDatabase() {
         return database;
     }
 
-    public static String getDatabaseError() {
-        return databaseError;
+    public static AsyncDatabase getAsyncDatabase() {
+        return asyncDatabase;
+    }
+
+    public static CourseCatalog getCourseCatalog() {
+        return courseCatalog;
+    }
+
+    public static ReviewCache getReviewCache() {
+        return reviewCache;
+    }
+
+    public static Navigator getNavigator() {
+        return navigator;
+    }
+
+    public static AppStartup getStartup() {
+        return startup;
     }
 
     public static void main(String[] args) {
-        try {
-            database = new Database("course_reviews.db");
-            database.connect();
-            database.createTables();
-        } 
-        catch (Exception e) {
-            databaseError = "Failed to initialize the database: " + e.getMessage();
-            e.printStackTrace();
-        }
+        // Nothing here touches the disk: the database is opened in the background while JavaFX starts,
+        // and calls made through asyncDatabase before it is ready wait for it
+        database = new Database("course_reviews.db");
+        courseCatalog = new CourseCatalog(database);
+        reviewCache = new ReviewCache(database);
+        startup = new AppStartup(database, courseCatalog);
+        asyncDatabase = new AsyncDatabase(database, startup.whenDatabaseReady());
+        startup.startDatabase();
 
         launch(args);
     }
@@ -40,19 +57,17 @@ public class CourseReviewsApplication extends Application {
         //loading comfortaa font
         Font.loadFont(getClass().getResourceAsStream("/edu/virginia/sde/reviews/fonts/Comfortaa-VariableFont_wght.ttf"), 14);
 
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("login-screen.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), 1280, 720);
-
-        scene.getStylesheets().add(getClass().getResource("styles/login-screen.css").toExternalForm());
-
-        stage.setTitle("Course Reviews - Login");
-        stage.setScene(scene);
-        stage.show();
+        navigator = new Navigator(stage);
+        navigator.show(Navigator.Screen.LOGIN);
+        //the other screens are parsed in the background once the login screen has been drawn
+        startup.awaitFirstFrame(stage.getScene(), navigator);
     }
 
     @Override
     public void stop() throws Exception {
-        if (database != null) {
+        asyncDatabase.shutdown();
+        CompletableFuture<Void> ready = startup.whenDatabaseReady();
+        if (ready.isDone() && !ready.isCompletedExceptionally()) {
             database.disconnect();
         }
     }
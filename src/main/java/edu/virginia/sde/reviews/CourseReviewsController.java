@@ -1,26 +1,22 @@
 package edu.virginia.sde.reviews;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
-public class CourseReviewsController implements Initializable {
+public class CourseReviewsController implements Initializable, ScreenController {
     @FXML private Label courseTitleLabel;
     @FXML private Label averageRatingLabel;
-    @FXML private VBox reviewsContainer;
+    @FXML private ListView<Review> reviewsList;
     @FXML private VBox addReviewContainer;
     @FXML private HBox ratingBox;
     @FXML private TextArea commentArea;
@@ -30,42 +26,57 @@ public class CourseReviewsController implements Initializable {
 
     private String currentUsername; 
     private List<Review> reviews;
+    private CourseStats courseStats;
     private Review currentUserReview;
     private ToggleGroup ratingGroup;
     private Course course;
-    private Database database;
+    private AsyncDatabase database;
+    private final ReviewCache reviewCache;
+    private final ScreenRequests requests = new ScreenRequests();
+    private CompletableFuture<?> loadRequest;
     private User currentUser;
 
     public CourseReviewsController() {
         this.reviews = new ArrayList<>();
         this.currentUsername = null;
-        this.database = null;
+        this.database = CourseReviewsApplication.getAsyncDatabase();
+        this.reviewCache = CourseReviewsApplication.getReviewCache();
     }
 
-    public void initializeController(Database database) {
-        this.database = database;
-        this.currentUsername = UserSession.getInstance().getUser().getUsername();
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        reviews = new ArrayList<>();
+        ratingGroup = new ToggleGroup();
+        setupRatingButtons();
+
+        // The list only creates cells for the rows on screen and reuses them while scrolling
+        reviewsList.setCellFactory(list -> new ReviewListCell());
     }
 
+    // The screen is kept between visits and shown each time with the Course whose reviews to show
     @Override
-    public void initialize(URL url, ResourceBundle resourceBundle) {
+    public void onShow(Object context) {
         currentUser = UserSession.getInstance().getUser();
         if (currentUser == null) {
             showError("Authentication Error", new Exception("Please log in first"));
             handleBackButton();
             return;
         }
+        currentUsername = currentUser.getUsername();
+        // Don't leave the previous course's reviews up while this one's load
+        reviewsList.getItems().clear();
+        setCourse((Course) context);
+    }
 
-        reviews = new ArrayList<>();
-        ratingGroup = new ToggleGroup();
-        setupRatingButtons();
+    @Override
+    public void onHide() {
+        requests.cancelAll();
     }
 
     public void setCourse(Course course) {
         this.course = course;
         setupCourseInfo();
         loadReviews();
-        checkAndShowUserReview();
     }
 
     private void setupCourseInfo() {
@@ -86,14 +97,43 @@ public class CourseReviewsController implements Initializable {
         }
     }
 
+    // The course's whole review list comes from the review cache, which only reads SQLite on a miss.
+    // The average and the user's own review are worked out from that list, which is handed to the list view whole
     private void loadReviews() {
-        try {
-            reviews = database.getReviewsByCourse(course);
-            updateReviewsList();
+        requests.cancel(loadRequest);
+        averageRatingLabel.setText("Loading reviews...");
+        setEditingDisabled(true);
+        loadRequest = requests.run(database.submit(db -> reviewCache.getReviews(course)), loaded -> {
+            reviews = loaded;
+            courseStats = summarize(loaded);
+            currentUserReview = null;
+            for (Review review : loaded) {
+                if (review.getAuthorUsername().equals(currentUsername)) {
+                    currentUserReview = review;
+                }
+            }
+            reviewsList.getItems().setAll(loaded);
             updateAverageRating();
-        } catch (SQLException e) {
+            checkAndShowUserReview();
+            setEditingDisabled(false);
+        }, e -> {
+            averageRatingLabel.setText("");
+            setEditingDisabled(false);
             showError("Error loading reviews", e);
+        });
+    }
+
+    private CourseStats summarize(List<Review> courseReviews) {
+        double ratingSum = 0;
+        for (Review review : courseReviews) {
+            ratingSum += review.getRating();
         }
+        return new CourseStats(course.getCourseID(), courseReviews.size(), ratingSum);
+    }
+
+    private void setEditingDisabled(boolean disabled) {
+        submitButton.setDisable(disabled);
+        deleteButton.setDisable(disabled);
     }
 
     @FXML
@@ -117,98 +157,51 @@ public class CourseReviewsController implements Initializable {
             timestamp
         );
 
-        try {
-            List<Review> reviewsToAdd = new ArrayList<>();
-            reviewsToAdd.add(newReview);
-            database.addReviews(reviewsToAdd);
-            database.commit();
-            
+        setEditingDisabled(true);
+        requests.run(database.submitReview(newReview), done -> {
             // Reload reviews to get the updated list with database-assigned IDs
             loadReviews();
-            checkAndShowUserReview();
-        } catch (SQLException e) {
-            try {
-                database.rollback();
-            } catch (SQLException rollbackEx) {
-                showError("Error rolling back transaction", rollbackEx);
-            }
+        }, e -> {
+            setEditingDisabled(false);
             showError("Error submitting review", e);
-        }
+        });
     }
 
     @FXML
     private void handleDeleteReview() {
-        try {
-            if (currentUserReview != null) {
-                database.deleteReview(course.getCourseID(), currentUsername);
-                
-                ratingGroup.selectToggle(null);
-                commentArea.clear();
-                
-                loadReviews();
-                checkAndShowUserReview();
-            }
-        } catch (SQLException e) {
-            showError("Error deleting review", e);
+        if (currentUserReview == null) {
+            return;
         }
+        setEditingDisabled(true);
+        requests.run(database.deleteReview(course.getCourseID(), currentUsername), done -> {
+            ratingGroup.selectToggle(null);
+            commentArea.clear();
+
+            loadReviews();
+        }, e -> {
+            setEditingDisabled(false);
+            showError("Error deleting review", e);
+        });
     }
 
     @FXML
     private void handleBackButton() {
         try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("course-search-screen.fxml"));
-            Scene scene = new Scene(fxmlLoader.load(), 1280, 720);
-
-            Stage stage = (Stage) ratingBox.getScene().getWindow();
-            stage.setTitle("Course Reviews - Search Courses");
-            stage.setScene(scene);
-            stage.show();
+            CourseReviewsApplication.getNavigator().show(Navigator.Screen.COURSE_SEARCH);
         } catch (IOException e) {
         }
     }
 
-    private void updateReviewsList() {
-        reviewsContainer.getChildren().clear();
-        
-        for (Review review : reviews) {
-            VBox reviewBox = new VBox(5);
-            reviewBox.setStyle("-fx-border-color: lightgray; -fx-padding: 10; -fx-border-radius: 5;");
-            
-            Label ratingLabel = new Label(String.format("Rating: %.1f", review.getRating()));
-            Label timestampLabel = new Label("Posted: " + review.getTimestamp());
-            
-            reviewBox.getChildren().addAll(ratingLabel, timestampLabel);
-            
-            if (!review.getComment().isEmpty()) {
-                Label commentLabel = new Label("Comment: " + review.getComment());
-                commentLabel.setWrapText(true);
-                reviewBox.getChildren().add(commentLabel);
-            }
-            
-            reviewsContainer.getChildren().add(reviewBox);
-        }
-    }
-
     private void updateAverageRating() {
-        if (reviews.isEmpty()) {
+        if (!courseStats.hasReviews()) {
             averageRatingLabel.setText("No reviews yet");
             return;
         }
 
-        double average = reviews.stream()
-            .mapToDouble(Review::getRating)
-            .average()
-            .orElse(0.0);
-
-        averageRatingLabel.setText(String.format("Average Rating: %.2f", average));
+        averageRatingLabel.setText(String.format("Average Rating: %.2f", courseStats.getAverageRating()));
     }
 
     private void checkAndShowUserReview() {
-        currentUserReview = reviews.stream()
-            .filter(r -> r.getAuthorUsername().equals(currentUsername))
-            .findFirst()
-            .orElse(null);
-
         deleteButton.setVisible(currentUserReview != null);
 
         if (currentUserReview != null) {
@@ -234,7 +227,7 @@ public class CourseReviewsController implements Initializable {
         alert.showAndWait();
     }
 
-    private void showError(String message, Exception e) {
+    private void showError(String message, Throwable e) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Error");
         alert.setHeaderText(message);
@@ -1,75 +1,131 @@
 package edu.virginia.sde.reviews;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.geometry.Side;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
-public class CourseSearchController {
+public class CourseSearchController implements ScreenController {
+
+    // How the three search fields are matched against the catalog
+    private enum SearchMode {
+        EXACT("Exact match"),
+        FUZZY("Fuzzy match"),
+        RANKED("Best match");
+
+        private final String label;
+
+        SearchMode(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
 
     @FXML private TextField subjectSearchField;
     @FXML private TextField numberSearchField;
     @FXML private TextField titleSearchField;
-    @FXML private TableView<Course> courseTable;
-    @FXML private TableColumn<Course, String> subjectColumn;
-    @FXML private TableColumn<Course, Integer> numberColumn;
-    @FXML private TableColumn<Course, String> titleColumn;
-    @FXML private TableColumn<Course, String> ratingColumn;
-    @FXML private TableColumn<Course, Void> actionColumn;
+    @FXML private ChoiceBox<SearchMode> searchModeBox;
+    @FXML private TableView<RatedCourse> courseTable;
+    @FXML private TableColumn<RatedCourse, String> subjectColumn;
+    @FXML private TableColumn<RatedCourse, Integer> numberColumn;
+    @FXML private TableColumn<RatedCourse, String> titleColumn;
+    @FXML private TableColumn<RatedCourse, String> ratingColumn;
+    @FXML private TableColumn<RatedCourse, Void> actionColumn;
     @FXML private TextField addSubjectField;
     @FXML private TextField addNumberField;
     @FXML private TextField addTitleField;
     @FXML private Label errorMessage;
 
-    private final Database db;
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_ROWS = 10;
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(250);
+    private static final int MAX_COMPLETIONS = 8;
+
+    private final AsyncDatabase db;
+    private final CourseCatalog catalog;
+    private final ScreenRequests requests = new ScreenRequests();
     private User currentUser;
+    // Filters and continuation token of the result set currently shown in the table
+    private String pageSubject = "", pageNumber = "", pageTitle = "";
+    private SearchMode pageMode = SearchMode.EXACT;
+    // The catalog version the shown result set was read at; any newer version may change its rows or ratings
+    private long pageVersion = -1;
+    // Filters of the latest search, whether its results are shown yet or still loading
+    private String requestedSubject, requestedNumber, requestedTitle;
+    private SearchMode requestedMode;
+    private PauseTransition searchDebounce;
+    private ContextMenu completions;
+    private boolean applyingCompletion;
+    private String nextCursor;
+    private boolean nextPageRequested;
+    private CompletableFuture<?> searchRequest, pageRequest;
 
     public CourseSearchController() {
-        this.db = CourseReviewsApplication.getDatabase();
+        this.db = CourseReviewsApplication.getAsyncDatabase();
+        this.catalog = CourseReviewsApplication.getCourseCatalog();
     }
 
     @FXML
     public void initialize() {
-        currentUser = UserSession.getInstance().getUser();
-        if (currentUser == null) {
-            errorMessage.setText("Please log in first");
-            logOut();
-            return;
+        // The debounce timer and the completion popup belong to the FX thread, but a preloaded screen is
+        // initialized on a background thread, so there they are made once the FX thread gets to them. That is
+        // before the screen can be shown, since the preload hands the screen over through the FX thread too
+        if (Platform.isFxApplicationThread()) {
+            createSearchPopups();
+        } else {
+            Platform.runLater(this::createSearchPopups);
+        }
+
+        // Search as the user types, once they pause. Each search supersedes the one before it: if the superseded
+        // query hasn't started it is skipped, and if it has, its results are dropped when they arrive
+        for (TextField field : List.of(subjectSearchField, numberSearchField, titleSearchField)) {
+            field.textProperty().addListener((obs, oldText, newText) -> searchDebounce.playFromStart());
         }
+        searchModeBox.getItems().setAll(SearchMode.values());
+        searchModeBox.setValue(SearchMode.EXACT);
+        searchModeBox.valueProperty().addListener((obs, oldMode, newMode) -> searchIfChanged());
+
+        // Suggest subjects, then subject and number keys, from the in-memory catalog as the subject is typed
+        subjectSearchField.textProperty().addListener((obs, oldText, newText) -> suggestCompletions());
+        subjectSearchField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+            if (!focused) {
+                completions.hide();
+            }
+        });
+
+        subjectColumn.setCellValueFactory(cellData ->
+                new SimpleStringProperty(cellData.getValue().course().getMnemonic()));
+        numberColumn.setCellValueFactory(cellData ->
+                new SimpleObjectProperty<>(cellData.getValue().course().getNumber()));
+        titleColumn.setCellValueFactory(cellData ->
+                new SimpleStringProperty(cellData.getValue().course().getTitle()));
+        ratingColumn.setCellValueFactory(cellData ->
+                new SimpleStringProperty(cellData.getValue().formatRating()));
 
-        subjectColumn.setCellValueFactory(new PropertyValueFactory<>("mnemonic"));
-        numberColumn.setCellValueFactory(new PropertyValueFactory<>("number"));
-        titleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
-        
-        // Set up rating column with calculated average
-        ratingColumn.setCellValueFactory(cellData -> {
-            Course course = cellData.getValue();
-            try {
-                List<Review> reviews = db.getReviewsByCourse(course);
-                if (reviews.isEmpty()) {
-                    return new SimpleStringProperty("No reviews");
+        // Fetch the next page once a row near the end of what's loaded is shown
+        courseTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(RatedCourse item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && nextCursor != null && !nextPageRequested
+                        && getIndex() >= table.getItems().size() - PREFETCH_ROWS) {
+                    nextPageRequested = true;
+                    Platform.runLater(CourseSearchController.this::loadNextPage);
                 }
-                
-                double averageRating = reviews.stream()
-                    .mapToDouble(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-                
-                return new SimpleStringProperty(String.format("%.1f", averageRating));
-            } catch (SQLException e) {
-                e.printStackTrace();
-                return new SimpleStringProperty("Error");
             }
         });
 
@@ -78,7 +134,7 @@ public class CourseSearchController {
 
             {
                 reviewButton.setOnAction(event -> {
-                    Course course = getTableView().getItems().get(getIndex());
+                    Course course = getTableView().getItems().get(getIndex()).course();
                     try {
                         navigateToCourseReview(course);
                     } catch (IOException e) {
@@ -97,43 +153,142 @@ public class CourseSearchController {
                 }
             }
         });
+    }
+
+    private void createSearchPopups() {
+        searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+        searchDebounce.setOnFinished(event -> searchIfChanged());
+        completions = new ContextMenu();
+        completions.setAutoHide(true);
+    }
+
+    // The screen is kept between visits. A new login starts from an empty search. Coming back from another
+    // screen keeps the results shown, pages and scroll position included, unless the catalog has changed since
+    // they were read, such as by a review just written; then the search that was showing is run again
+    @Override
+    public void onShow(Object context) {
+        User user = UserSession.getInstance().getUser();
+        if (user == null) {
+            logOut();
+            return;
+        }
+        boolean sameUser = currentUser != null && currentUser.getUsername().equals(user.getUsername());
+        if (!sameUser) {
+            subjectSearchField.clear();
+            numberSearchField.clear();
+            titleSearchField.clear();
+            addSubjectField.clear();
+            addNumberField.clear();
+            addTitleField.clear();
+            searchModeBox.setValue(SearchMode.EXACT);
+            pageSubject = pageNumber = pageTitle = "";
+            pageMode = SearchMode.EXACT;
+        }
+        currentUser = user;
+        errorMessage.setText("");
+        if (sameUser && !catalog.isStale(pageVersion)) {
+            // onHide cancelled whatever was loading, so pick up from the results shown: fetch more pages again,
+            // and run the search in the fields if it never finished
+            nextPageRequested = false;
+            requestedSubject = pageSubject;
+            requestedNumber = pageNumber;
+            requestedTitle = pageTitle;
+            requestedMode = pageMode;
+            searchIfChanged();
+            return;
+        }
+        loadFirstPage(pageSubject, pageNumber, pageTitle, pageMode,
+                page -> {}, e -> errorMessage.setText("Error loading courses."));
+    }
 
-        loadCourses();
+    @Override
+    public void onHide() {
+        searchDebounce.stop();
+        completions.hide();
+        requests.cancelAll();
     }
 
     @FXML
     private void navigateToCourseReview(Course course) throws IOException {
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("course-review-screen.fxml"));
-        Parent root = loader.load();
-        
-        CourseReviewsController reviewController = loader.getController();
-        reviewController.initializeController(db);
-        reviewController.setCourse(course);
-        
-        Scene scene = new Scene(root, 1280, 720);
-        Stage stage = (Stage) courseTable.getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        CourseReviewsApplication.getNavigator().show(Navigator.Screen.COURSE_REVIEWS, course);
+    }
+
+    private void suggestCompletions() {
+        String typed = subjectSearchField.getText();
+        List<String> keys = applyingCompletion || !subjectSearchField.isFocused()
+                ? List.of()
+                : catalog.complete(typed, MAX_COMPLETIONS);
+        // nothing to suggest once the subject is typed out in full
+        if (keys.isEmpty() || (keys.size() == 1 && keys.get(0).equalsIgnoreCase(typed.trim()))) {
+            completions.hide();
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            MenuItem item = new MenuItem(key);
+            item.setOnAction(event -> applyCompletion(key));
+            items.add(item);
+        }
+        completions.getItems().setAll(items);
+        if (!completions.isShowing()) {
+            completions.show(subjectSearchField, Side.BOTTOM, 0, 0);
+        }
+    }
+
+    // A subject and number key such as "CS 3140" fills in both fields
+    private void applyCompletion(String key) {
+        applyingCompletion = true;
+        int space = key.indexOf(' ');
+        if (space < 0) {
+            subjectSearchField.setText(key);
+        } else {
+            subjectSearchField.setText(key.substring(0, space));
+            numberSearchField.setText(key.substring(space + 1));
+        }
+        applyingCompletion = false;
+        subjectSearchField.positionCaret(subjectSearchField.getText().length());
+        completions.hide();
+    }
+
+    // Typing a character and deleting it again leaves the filters as they were, which needs no new search
+    private void searchIfChanged() {
+        if (subjectSearchField.getText().trim().equals(requestedSubject)
+                && numberSearchField.getText().trim().equals(requestedNumber)
+                && titleSearchField.getText().trim().equals(requestedTitle)
+                && searchModeBox.getValue() == requestedMode) {
+            return;
+        }
+        search();
     }
 
     @FXML
     public void search() {
+        searchDebounce.stop();
         String subject = subjectSearchField.getText().trim();
         String number = numberSearchField.getText().trim();
         String title = titleSearchField.getText().trim();
+        SearchMode mode = searchModeBox.getValue();
+        // An exact search filters on the number as an integer, so anything that can't be a course number is
+        // caught here rather than failing in the catalog. The other modes only match it as text
+        if (mode == SearchMode.EXACT && !number.isEmpty() && !number.matches("\\d{1,4}")) {
+            requests.cancel(searchRequest);
+            requests.cancel(pageRequest);
+            requestedSubject = requestedNumber = requestedTitle = null;
+            errorMessage.setText("Course number must be up to 4 digits.");
+            return;
+        }
 
-        try {
-            List<Course> courses = db.searchCourses(subject, number, title);
-            courseTable.getItems().setAll(courses);
-            if (courses.isEmpty()) {
+        errorMessage.setText("Searching...");
+        loadFirstPage(subject, number, title, mode, page -> {
+            if (page.getItems().isEmpty()) {
                 errorMessage.setText("No courses found.");
             } else {
                 errorMessage.setText("");
             }
-        } catch (SQLException e) {
+        }, e -> {
             errorMessage.setText("Course search error.");
             System.out.println("Error searching for courses: " + e.getMessage());
-        }
+        });
     }
 
     @FXML
@@ -142,41 +297,27 @@ public class CourseSearchController {
         String number = addNumberField.getText().trim();
         String title = addTitleField.getText().trim();
 
-        if (!subject.matches("[A-Z]{2,4}")) {
-            errorMessage.setText("Subject must be 2-4 letters.");
-            return;
-        }
-        if (!number.matches("\\d{4}")) {
-            errorMessage.setText("Number must be exactly 4 digits.");
-            return;
-        }
-        if (title.isEmpty() || title.length() > 50) {
-            errorMessage.setText("Title must be 1-50 characters.");
+        String invalid = CourseValidator.validate(subject, number, title);
+        if (invalid != null) {
+            errorMessage.setText(invalid);
             return;
         }
 
-        try {
-            if(db.addCourse(subject, Integer.parseInt(number), title)) {
+        int courseNumber = Integer.parseInt(number);
+        requests.run(db.submit(database -> catalog.addCourse(subject, courseNumber, title)), added -> {
+            if (added != null) {
                 loadCourses();
                 errorMessage.setText("");
             } else {
                 errorMessage.setText("Course already exists.");
             }
-        } catch (SQLException e) {
-            errorMessage.setText("Error adding course.");
-        }
+        }, e -> errorMessage.setText("Error adding course."));
     }
 
     @FXML
     public void handleMyReviews() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("my-reviews-screen.fxml"));
-            Scene scene = new Scene(loader.load(), 1280, 720);
-
-            Stage stage = (Stage) courseTable.getScene().getWindow();
-            stage.setScene(scene);
-            stage.setTitle("My Reviews");
-            stage.show();
+            CourseReviewsApplication.getNavigator().show(Navigator.Screen.MY_REVIEWS);
         } catch (IOException e) {
             errorMessage.setText("Error navigating to My Reviews screen.");
         }
@@ -186,24 +327,77 @@ public class CourseSearchController {
     public void logOut() {
         UserSession.getInstance().clearSession();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("login-screen.fxml"));
-            Scene scene = new Scene(loader.load(), 1280, 720);
-
-            Stage stage = (Stage) courseTable.getScene().getWindow();
-            stage.setScene(scene);
-            stage.setTitle("Login Screen");
-            stage.show();
+            CourseReviewsApplication.getNavigator().show(Navigator.Screen.LOGIN);
         } catch (IOException e) {
             errorMessage.setText("Error navigating to login screen.");
         }
     }
 
     private void loadCourses() {
-        try {
-            List<Course> courses = db.getAllCourses();
-            courseTable.getItems().setAll(courses);
-        } catch (SQLException e) {
-            errorMessage.setText("Error loading courses.");
+        loadFirstPage("", "", "", SearchMode.EXACT, page -> {}, e -> errorMessage.setText("Error loading courses."));
+    }
+
+    // Replaces the table contents with the first page of a new result set, superseding any request still running.
+    // A fuzzy search matches all three fields together against the in-memory trigram index, and a best match
+    // search ranks courses matching any field; both return their results as one page
+    private void loadFirstPage(String subject, String number, String title, SearchMode mode,
+                               Consumer<Page<RatedCourse>> onSuccess, Consumer<Throwable> onError) {
+        requests.cancel(searchRequest);
+        requests.cancel(pageRequest);
+        nextPageRequested = false;
+        nextCursor = null;
+        requestedSubject = subject;
+        requestedNumber = number;
+        requestedTitle = title;
+        requestedMode = mode;
+        long version = catalog.getVersion();
+        courseTable.setPlaceholder(new Label("Loading courses..."));
+        String fuzzyQuery = String.join(" ", subject, number, title).trim();
+        searchRequest = requests.run(
+                db.submit(database -> switch (mode) {
+                    case FUZZY -> fuzzyQuery.isEmpty()
+                            ? catalog.searchPage(subject, number, title, null, PAGE_SIZE)
+                            : catalog.fuzzySearchPage(fuzzyQuery, PAGE_SIZE);
+                    case RANKED -> catalog.rankedSearchPage(subject, number, title, PAGE_SIZE);
+                    case EXACT -> catalog.searchPage(subject, number, title, null, PAGE_SIZE);
+                }),
+                page -> {
+                    pageSubject = subject;
+                    pageNumber = number;
+                    pageTitle = title;
+                    pageMode = mode;
+                    pageVersion = version;
+                    nextCursor = page.getNextCursor();
+                    courseTable.setPlaceholder(new Label("No courses found."));
+                    courseTable.getItems().setAll(page.getItems());
+                    courseTable.scrollTo(0);
+                    onSuccess.accept(page);
+                },
+                e -> {
+                    // let the same filters be searched again
+                    requestedSubject = requestedNumber = requestedTitle = null;
+                    courseTable.setPlaceholder(new Label("No courses found."));
+                    onError.accept(e);
+                });
+    }
+
+    private void loadNextPage() {
+        if (nextCursor == null) {
+            nextPageRequested = false;
+            return;
         }
+        String subject = pageSubject, number = pageNumber, title = pageTitle, cursor = nextCursor;
+        pageRequest = requests.run(
+                db.submit(database -> catalog.searchPage(subject, number, title, cursor, PAGE_SIZE)),
+                page -> {
+                    nextPageRequested = false;
+                    nextCursor = page.getNextCursor();
+                    courseTable.getItems().addAll(page.getItems());
+                },
+                e -> {
+                    nextPageRequested = false;
+                    nextCursor = null;
+                    errorMessage.setText("Error loading courses.");
+                });
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package edu.virginia.sde.reviews;
+
+public class CourseStats {
+
+    private final int courseID, reviewCount;
+    private final double ratingSum;
+
+    public CourseStats(int courseID, int reviewCount, double ratingSum) {
+        this.courseID = courseID;
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+    }
+
+    public static CourseStats empty(int courseID) {
+        return new CourseStats(courseID, 0, 0.0);
+    }
+
+    public int getCourseID() {
+        return courseID;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public double getRatingSum() {
+        return ratingSum;
+    }
+
+    public boolean hasReviews() {
+        return reviewCount > 0;
+    }
+
+    public double getAverageRating() {
+        return reviewCount > 0 ? ratingSum / reviewCount : 0.0;
+    }
+}
@@ -0,0 +1,130 @@
+package edu.virginia.sde.reviews;
+
+import java.util.*;
+
+/**
+ * Typo-tolerant lookup of courses by their mnemonic, number and title. Each course's text is broken into
+ * trigrams, the three-letter pieces of each word padded with spaces ("cs" gives "  c", " cs" and "cs "), and
+ * every trigram maps to the courses containing it. A query is broken up the same way, and a course's
+ * similarity is the fraction of the query's trigrams it shares, so "algoritms" still finds "Algorithms".
+ *
+ * The index is immutable and built with the catalog snapshot it belongs to. Lookups read the posting lists
+ * rarest first and stop reading once the time budget is spent, ranking courses on the trigrams read so far;
+ * the rare trigrams read first are the ones that tell courses apart. Only the courses found in the lists read
+ * are ranked, so the work after the budget runs out is bounded by what was read, not by the catalog size.
+ */
+public class CourseTrigramIndex {
+
+    //a course has to share at least this fraction of the query's trigrams to be returned
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private final List<Course> courses;
+    private final Map<String, int[]> postings;
+    private final int[] trigramCounts;
+
+    //courses must be in the order they should be returned in when equally similar
+    public CourseTrigramIndex(List<Course> courses) {
+        this.courses = courses;
+        this.trigramCounts = new int[courses.size()];
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int i = 0; i < courses.size(); i++) {
+            Set<String> trigrams = trigrams(text(courses.get(i)));
+            trigramCounts[i] = trigrams.size();
+            for (String trigram : trigrams) {
+                building.computeIfAbsent(trigram, key -> new ArrayList<>()).add(i);
+            }
+        }
+        this.postings = new HashMap<>(building.size() * 2);
+        building.forEach((trigram, positions) ->
+                postings.put(trigram, positions.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Returns up to limit courses most similar to the query, most similar first.
+     *
+     * @param budgetNanos how long to spend reading posting lists before ranking what has been read
+     */
+    public List<Course> search(String query, int limit, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Set<String> queryTrigrams = trigrams(normalize(query));
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<int[]> lists = new ArrayList<>();
+        for (String trigram : queryTrigrams) {
+            int[] positions = postings.get(trigram);
+            if (positions != null) {
+                lists.add(positions);
+            }
+        }
+        lists.sort(Comparator.comparingInt(positions -> positions.length));
+
+        int[] shared = new int[courses.size()];
+        //the courses sharing any trigram read, so ranking costs what was read rather than the catalog size
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        int unread = lists.size();
+        for (int[] positions : lists) {
+            for (int position : positions) {
+                if (shared[position]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = position;
+                }
+            }
+            unread--;
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        //similarity is judged only on the trigrams read, should the budget have run out
+        int minShared = (int) Math.ceil((queryTrigrams.size() - unread) * MIN_SIMILARITY);
+        //keeps the best limit courses seen so far, with the worst of them at the head
+        Comparator<Integer> ranking = Comparator.<Integer>comparingInt(position -> shared[position])
+                .thenComparing(position -> trigramCounts[position], Comparator.reverseOrder())
+                .thenComparing(Comparator.reverseOrder());
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, ranking);
+        for (int i = 0; i < touchedCount; i++) {
+            int position = touched[i];
+            if (shared[position] < minShared) {
+                continue;
+            }
+            best.add(position);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        Course[] ranked = new Course[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = courses.get(best.poll());
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private static String text(Course course) {
+        return normalize(course.getMnemonic() + " " + course.getNumber() + " " + course.getTitle());
+    }
+
+    //lower case, with every run of characters other than letters and digits turned into one space
+    private static String normalize(String text) {
+        return text.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,28 @@
+package edu.virginia.sde.reviews;
+
+/**
+ * The rules a new course has to pass, shared by the Add Course form and the bulk importer. Callers trim the
+ * fields and upper-case the subject before validating, the way the form does.
+ */
+public class CourseValidator {
+
+    public static final int MAX_TITLE_LENGTH = 50;
+
+    private CourseValidator() {}
+
+    /**
+     * @return a message describing the first rule the course breaks, or null if it is valid
+     */
+    public static String validate(String subject, String number, String title) {
+        if (!subject.matches("[A-Z]{2,4}")) {
+            return "Subject must be 2-4 letters.";
+        }
+        if (!number.matches("\\d{4}")) {
+            return "Number must be exactly 4 digits.";
+        }
+        if (title.isEmpty() || title.length() > MAX_TITLE_LENGTH) {
+            return "Title must be 1-" + MAX_TITLE_LENGTH + " characters.";
+        }
+        return null;
+    }
+}
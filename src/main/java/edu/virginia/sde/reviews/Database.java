@@ -1,71 +1,379 @@
 package edu.virginia.sde.reviews;
 
+import org.sqlite.SQLiteConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Access to the SQLite database, safe to use from several threads at once. The database runs in WAL mode, so
+ * readers never block the writer or each other: queries borrow one of a bounded pool of read-only connections,
+ * while every change goes through a single writer connection. Callers that want to write queue on a fair lock
+ * and take turns on the writer in arrival order.
+ */
 public class Database {
+    //largest IN list in a lookup by ID; smaller lookups are padded up to a power of two so only a handful of
+    //distinct statements are ever prepared
+    private static final int ID_LOOKUP_CHUNK = 512;
+    private static final String CURSOR_SEPARATOR = "/";
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    //an upsert rather than REPLACE: REPLACE deletes the old row without firing the CourseStats delete trigger
+    private static final String UPSERT_REVIEW = "INSERT INTO Reviews(courseID, authorUsername, rating, comment, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT(courseID, authorUsername) DO UPDATE SET " +
+            "rating = excluded.rating, comment = excluded.comment, timestamp = excluded.timestamp";
+    private static final String DELETE_REVIEW = "DELETE FROM Reviews WHERE courseID = ? AND authorUsername = ?";
+    private static final String INSERT_COURSE =
+            "INSERT OR IGNORE INTO Courses (courseMnemonic, courseNumber, title) VALUES (?, ?, ?)";
+
+    //searchCourses has one query for each combination of filled-in filters, indexed by SEARCH_BY_* bits,
+    //so each of the eight shapes is compiled once per connection and then reused from the statement cache
+    private static final int SEARCH_BY_SUBJECT = 1, SEARCH_BY_NUMBER = 2, SEARCH_BY_TITLE = 4;
+    private static final String[] SEARCH_COURSES_QUERIES = new String[8];
+    static {
+        for (int shape = 0; shape < SEARCH_COURSES_QUERIES.length; shape++) {
+            StringBuilder query = new StringBuilder("SELECT * FROM Courses WHERE 1=1");
+            if ((shape & SEARCH_BY_SUBJECT) != 0) {
+                query.append(" AND LOWER(courseMnemonic) = LOWER(?)");
+            }
+            if ((shape & SEARCH_BY_NUMBER) != 0) {
+                query.append(" AND courseNumber = ?");
+            }
+            if ((shape & SEARCH_BY_TITLE) != 0) {
+                query.append(" AND LOWER(title) LIKE LOWER(?)");
+            }
+            SEARCH_COURSES_QUERIES[shape] = query.toString();
+        }
+    }
+
     private final String sqliteFilename;
-    private Connection connection;
+    private final int readerPoolSize;
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private final List<IntConsumer> reviewChangeListeners = new CopyOnWriteArrayList<>();
+    private final DatabaseMetrics metrics = new DatabaseMetrics();
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog();
+    private BlockingQueue<CachedConnection> readers;
+    private List<CachedConnection> allReaders;
+    private CachedConnection writer;
 
     public Database(String sqliteFilename) {
+        this(sqliteFilename, Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public Database(String sqliteFilename, int readerPoolSize) {
+        if (readerPoolSize < 1) {
+            throw new IllegalArgumentException("readerPoolSize must be at least 1");
+        }
         this.sqliteFilename = sqliteFilename;
+        this.readerPoolSize = readerPoolSize;
+    }
+
+    public int getReaderPoolSize() {
+        return readerPoolSize;
     }
 
     /**
-     * Connect to the SQLite Database. Enables foreign key enforcement and disables auto-commit.
+     * Returns the timings of every call made on this database so far: per-method call counts, latencies, rows
+     * and errors, plus commit and rollback counts and how long callers waited for a connection. Publish them
+     * over JMX with {@link DatabaseMetrics#registerMBeans}.
+     */
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Connect to the SQLite Database. Opens the writer connection, which switches the database to WAL mode,
+     * enables foreign key enforcement and disables auto-commit, and then the pool of read-only connections.
      *
      * @throws SQLException
      */
     public void connect() throws SQLException {
-        if (connection != null && !connection.isClosed()) {
+        if (writer != null && !writer.isClosed()) {
             throw new IllegalStateException("The connection is already opened");
         }
-        connection = DriverManager.getConnection("jdbc:sqlite:" + sqliteFilename);
-        connection.createStatement().execute("PRAGMA foreign_keys = ON");
-        connection.setAutoCommit(false);
+        String url = "jdbc:sqlite:" + sqliteFilename;
+
+        SQLiteConfig writerConfig = new SQLiteConfig();
+        writerConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        writerConfig.enforceForeignKeys(true);
+        writerConfig.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        Connection writerConnection = DriverManager.getConnection(url, writerConfig.toProperties());
+        writerConnection.setAutoCommit(false);
+        writer = new CachedConnection(writerConnection);
+
+        SQLiteConfig readerConfig = new SQLiteConfig();
+        readerConfig.setReadOnly(true);
+        readerConfig.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        allReaders = new ArrayList<>();
+        readers = new ArrayBlockingQueue<>(readerPoolSize);
+        for (int i = 0; i < readerPoolSize; i++) {
+            CachedConnection reader = new CachedConnection(
+                    DriverManager.getConnection(url, readerConfig.toProperties()));
+            allReaders.add(reader);
+            readers.add(reader);
+        }
     }
 
     /**
-     * Commit all changes since the connection was opened or since the last commit/rollback.
+     * Commit all changes on the writer connection since it was opened or since the last commit/rollback.
      *
      * @throws SQLException
      */
     public void commit() throws SQLException {
-        connection.commit();
+        writeLock.lock();
+        try {
+            writer.commit();
+            metrics.recordCommit();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Rollback to the last commit or when the connection was opened.
+     * Rollback the writer connection to the last commit or when the connection was opened.
      *
      * @throws SQLException
      */
     public void rollback() throws SQLException {
-        connection.rollback();
+        writeLock.lock();
+        try {
+            writer.rollback();
+            metrics.recordRollback();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Ends the connection to the database.
+     * Ends the writer connection and every connection in the reader pool.
      *
      * @throws SQLException
      */
     public void disconnect() throws SQLException {
-        connection.close();
+        writeLock.lock();
+        try {
+            for (CachedConnection reader : allReaders) {
+                reader.close();
+            }
+            writer.close();
+            metrics.unregisterMBeans();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
-     * Creates the three database tables: Users, Courses, and Reviews, with the appropriate constraints
-     * including foreign keys, if they do not exist already.
+     * Registers a listener that is called with a courseID each time a commit changes that course's reviews.
+     * Listeners run on the writing thread, after the commit and before the next write starts, so they
+     * should only do something quick such as invalidating a cache entry.
+     */
+    public void addReviewChangeListener(IntConsumer listener) {
+        reviewChangeListeners.add(listener);
+    }
+
+    private void reviewsChanged(Collection<Integer> courseIDs) {
+        for (int courseID : courseIDs) {
+            for (IntConsumer listener : reviewChangeListeners) {
+                listener.accept(courseID);
+            }
+        }
+    }
+
+    //receives the rows of a streamed query one at a time
+    @FunctionalInterface
+    public interface RowHandler<T> {
+        void handle(T row) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(CachedConnection connection) throws SQLException;
+    }
+
+    //runs a query on a pooled read-only connection, waiting for one to free up if they are all in use.
+    //the call is timed under the given operation name, including the wait, and logged if it was slow
+    private <T> T read(String operation, SqlWork<T> work) throws SQLException {
+        return read(operation, work, DatabaseMetrics::countRows);
+    }
+
+    private <T> T read(String operation, SqlWork<T> work, ToLongFunction<T> rows) throws SQLException {
+        if (readers == null) {
+            throw new IllegalStateException("The database is not connected");
+        }
+        OperationTimer timer = metrics.getTimer(operation);
+        long start = System.nanoTime();
+        try {
+            CachedConnection connection;
+            try {
+                connection = readers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            metrics.recordReaderWait(System.nanoTime() - start);
+            try {
+                connection.startCall();
+                T result = work.run(connection);
+                long elapsed = System.nanoTime() - start;
+                timer.record(elapsed, rows.applyAsLong(result));
+                slowQueryLog.check(operation, elapsed, connection);
+                return result;
+            } finally {
+                readers.add(connection);
+            }
+        } catch (SQLException | RuntimeException e) {
+            timer.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    //runs a change on the writer connection once every earlier writer has finished.
+    //anything left uncommitted by a failed change is rolled back so it can't leak into the next caller's commit
+    private <T> T write(String operation, SqlWork<T> work) throws SQLException {
+        if (writer == null) {
+            throw new IllegalStateException("The database is not connected");
+        }
+        OperationTimer timer = metrics.getTimer(operation);
+        long start = System.nanoTime();
+        T result;
+        long elapsed;
+        List<CachedConnection.StatementUse> slowStatements = null;
+        writeLock.lock();
+        metrics.recordWriterWait(System.nanoTime() - start);
+        try {
+            writer.startCall();
+            result = work.run(writer);
+            elapsed = System.nanoTime() - start;
+            timer.record(elapsed, DatabaseMetrics.countRows(result));
+            if (slowQueryLog.isSlow(elapsed)) {
+                slowStatements = writer.getStatementUses();
+            }
+        } catch (SQLException | RuntimeException e) {
+            timer.recordError(System.nanoTime() - start);
+            writer.rollback();
+            metrics.recordRollback();
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+        if (slowStatements != null) {
+            logSlowWrite(operation, elapsed, slowStatements);
+        }
+        return result;
+    }
+
+    //explains a slow write's statements on an idle reader, so the next writer isn't kept waiting on the log.
+    //rather than wait for a reader, the write is logged without plans if they are all busy
+    private void logSlowWrite(String operation, long elapsed, List<CachedConnection.StatementUse> statements) {
+        CachedConnection reader = readers.poll();
+        try {
+            slowQueryLog.log(operation, elapsed, statements, reader);
+        } finally {
+            if (reader != null) {
+                readers.add(reader);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(CachedConnection connection) throws SQLException;
+    }
+
+    private record Migration(int version, String description, MigrationStep step) {}
+
+    //the schema's history, oldest first. Never edit or reorder a released step; append a new one instead
+    private final List<Migration> migrations = List.of(
+        new Migration(1, "Users, Courses and Reviews tables", this::createBaseTables),
+        new Migration(2, "CourseStats aggregates", this::createCourseStatsTable),
+        new Migration(3, "full-text indexes", this::createFullTextIndexes),
+        new Migration(4, "lookup indexes for reviews and courses", this::createLookupIndexes),
+        new Migration(5, "unique course key", this::createCourseKey),
+        new Migration(6, "drop the unused review comment index", this::dropReviewCommentIndex)
+    );
+
+    /**
+     * Brings the schema up to date by applying, in order, every migration newer than the version recorded in
+     * PRAGMA user_version. Each migration commits together with its version bump, so an interrupted upgrade
+     * resumes from the last completed step. Files created before the schema was versioned report version 0
+     * and upgrade in place, since the early steps tolerate tables that already exist.
      *
      * @throws SQLException
      */
     public void createTables() throws SQLException {
-        if (connection.isClosed())
-            throw new IllegalStateException("Connection is already closed");
+        write("createTables", connection -> {
+            if (connection.isClosed())
+                throw new IllegalStateException("Connection is already closed");
+
+            int version = getSchemaVersion(connection);
+            int latest = getLatestSchemaVersion();
+            if (version > latest) {
+                throw new IllegalStateException("The database schema is at version " + version +
+                        ", but this version of the app only understands up to version " + latest);
+            }
+            for (Migration migration : migrations) {
+                if (migration.version() > version) {
+                    migration.step().apply(connection);
+                    connection.execute("PRAGMA user_version = " + migration.version());
+                    connection.commit();
+                    metrics.recordCommit();
+                }
+            }
+            return null;
+        });
+    }
+
+    public int getSchemaVersion() throws SQLException {
+        return read("getSchemaVersion", this::getSchemaVersion);
+    }
+
+    //the schema version createTables brings a file up to
+    public int getLatestSchemaVersion() {
+        return migrations.get(migrations.size() - 1).version();
+    }
+
+    /**
+     * For tools that only read: checks that the file is at the schema version this code expects, without
+     * migrating it, so the user's file is never upgraded or rewritten as a side effect.
+     *
+     * @throws IllegalStateException if the file's schema is older or newer than this version of the app
+     * @throws SQLException
+     */
+    public void requireLatestSchema() throws SQLException {
+        int version = getSchemaVersion();
+        int latest = getLatestSchemaVersion();
+        if (version != latest) {
+            throw new IllegalStateException("The database schema is at version " + version + ", but this tool " +
+                    "reads version " + latest + "; open the file with a matching version of the app first");
+        }
+    }
+
+    private int getSchemaVersion(CachedConnection connection) throws SQLException {
+        try (ResultSet rs = connection.prepare("PRAGMA user_version").executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
 
+    /**
+     * Creates the three database tables: Users, Courses, and Reviews, with the appropriate constraints
+     * including foreign keys, if they do not exist already.
+     *
+     * @throws SQLException
+     */
+    private void createBaseTables(CachedConnection connection) throws SQLException {
         String createUsersTable = "CREATE TABLE IF NOT EXISTS Users (" +
                 "username TEXT PRIMARY KEY," +
                 "password TEXT NOT NULL" +
@@ -79,34 +387,217 @@ public class Database {
                 ") STRICT;";
 
                 String createReviewsTable = "CREATE TABLE IF NOT EXISTS Reviews (" +
-    "reviewID INTEGER PRIMARY KEY AUTOINCREMENT," +
-    "courseID INTEGER," +
-    "authorUsername TEXT," +
-    "rating REAL NOT NULL CHECK (rating BETWEEN 1 AND 5)," +
-    "comment TEXT," +
-    "timestamp TEXT NOT NULL," +
-    "FOREIGN KEY(courseID) REFERENCES Courses(courseID) ON DELETE CASCADE," +
-    "FOREIGN KEY(authorUsername) REFERENCES Users(username) ON DELETE CASCADE," +
-    "UNIQUE(courseID, authorUsername)" +
-    ") STRICT;";
-
-        connection.prepareStatement(createUsersTable).execute();
-        connection.prepareStatement(createCoursesTable).execute();
-        connection.prepareStatement(createReviewsTable).execute();
+        "reviewID INTEGER PRIMARY KEY AUTOINCREMENT," +
+        "courseID INTEGER," +
+        "authorUsername TEXT," +
+        "rating REAL NOT NULL CHECK (rating BETWEEN 1 AND 5)," +
+        "comment TEXT," +
+        "timestamp TEXT NOT NULL," +
+        "FOREIGN KEY(courseID) REFERENCES Courses(courseID) ON DELETE CASCADE," +
+        "FOREIGN KEY(authorUsername) REFERENCES Users(username) ON DELETE CASCADE," +
+        "UNIQUE(courseID, authorUsername)" +
+        ") STRICT;";
+
+        connection.execute(createUsersTable);
+        connection.execute(createCoursesTable);
+        connection.execute(createReviewsTable);
+    }
+
+    /**
+     * Creates the CourseStats table, which holds the review count and rating sum for every course that has
+     * been reviewed, along with the triggers that keep it current. The triggers run inside the same transaction
+     * as the statement that changed Reviews, so the aggregates can never drift from the rows they summarize.
+     * If the table is new, it is backfilled from any reviews that already exist.
+     *
+     * @throws SQLException
+     */
+    private void createCourseStatsTable(CachedConnection connection) throws SQLException {
+        boolean exists = tableExists(connection, "CourseStats");
+
+        String createCourseStatsTable = "CREATE TABLE IF NOT EXISTS CourseStats (" +
+                "courseID INTEGER PRIMARY KEY," +
+                "reviewCount INTEGER NOT NULL DEFAULT 0," +
+                "ratingSum REAL NOT NULL DEFAULT 0," +
+                "averageRating REAL," +
+                "FOREIGN KEY(courseID) REFERENCES Courses(courseID) ON DELETE CASCADE" +
+                ") STRICT;";
+
+        String addToStats = "INSERT INTO CourseStats(courseID, reviewCount, ratingSum, averageRating) " +
+                "VALUES (NEW.courseID, 1, NEW.rating, NEW.rating) " +
+                "ON CONFLICT(courseID) DO UPDATE SET reviewCount = reviewCount + 1, " +
+                "ratingSum = ratingSum + NEW.rating, " +
+                "averageRating = (ratingSum + NEW.rating) / (reviewCount + 1);";
+
+        String removeFromStats = "UPDATE CourseStats SET reviewCount = reviewCount - 1, " +
+                "ratingSum = ratingSum - OLD.rating, " +
+                "averageRating = CASE WHEN reviewCount > 1 THEN (ratingSum - OLD.rating) / (reviewCount - 1) END " +
+                "WHERE courseID = OLD.courseID;";
+
+        String createInsertTrigger = "CREATE TRIGGER IF NOT EXISTS Reviews_stats_insert AFTER INSERT ON Reviews " +
+                "BEGIN " + addToStats + " END;";
+        String createDeleteTrigger = "CREATE TRIGGER IF NOT EXISTS Reviews_stats_delete AFTER DELETE ON Reviews " +
+                "BEGIN " + removeFromStats + " END;";
+        String createUpdateTrigger = "CREATE TRIGGER IF NOT EXISTS Reviews_stats_update " +
+                "AFTER UPDATE OF courseID, rating ON Reviews " +
+                "BEGIN " + removeFromStats + " " + addToStats + " END;";
+
+        connection.execute(createCourseStatsTable);
+        connection.execute(createInsertTrigger);
+        connection.execute(createDeleteTrigger);
+        connection.execute(createUpdateTrigger);
+
+        if (!exists) {
+            connection.execute("INSERT INTO CourseStats(courseID, reviewCount, ratingSum, averageRating) " +
+                    "SELECT courseID, COUNT(*), SUM(rating), AVG(rating) FROM Reviews GROUP BY courseID");
+        }
+    }
+
+    /**
+     * Creates the FTS5 indexes over course titles and review comments. Both are external-content tables, so
+     * they store only the index and read the text back from Courses and Reviews; triggers keep them in sync.
+     * The prefix option adds 2- and 3-character prefix indexes so that prefix queries don't scan the term list.
+     * If an index is new, it is rebuilt from the rows that already exist.
+     *
+     * @throws SQLException
+     */
+    private void createFullTextIndexes(CachedConnection connection) throws SQLException {
+        boolean coursesIndexed = tableExists(connection, "CoursesFts");
+        boolean reviewsIndexed = tableExists(connection, "ReviewsFts");
+
+        String createCoursesFts = "CREATE VIRTUAL TABLE IF NOT EXISTS CoursesFts USING fts5(" +
+                "title, content='Courses', content_rowid='courseID', prefix='2 3');";
+        String createReviewsFts = "CREATE VIRTUAL TABLE IF NOT EXISTS ReviewsFts USING fts5(" +
+                "comment, content='Reviews', content_rowid='reviewID', prefix='2 3');";
+
+        String indexCourse = "INSERT INTO CoursesFts(rowid, title) VALUES (NEW.courseID, NEW.title);";
+        String unindexCourse = "INSERT INTO CoursesFts(CoursesFts, rowid, title) " +
+                "VALUES ('delete', OLD.courseID, OLD.title);";
+        String indexReview = "INSERT INTO ReviewsFts(rowid, comment) VALUES (NEW.reviewID, NEW.comment);";
+        String unindexReview = "INSERT INTO ReviewsFts(ReviewsFts, rowid, comment) " +
+                "VALUES ('delete', OLD.reviewID, OLD.comment);";
+
+        connection.execute(createCoursesFts);
+        connection.execute(createReviewsFts);
+        connection.execute("CREATE TRIGGER IF NOT EXISTS Courses_fts_insert AFTER INSERT ON Courses " +
+                "BEGIN " + indexCourse + " END;");
+        connection.execute("CREATE TRIGGER IF NOT EXISTS Courses_fts_delete AFTER DELETE ON Courses " +
+                "BEGIN " + unindexCourse + " END;");
+        connection.execute("CREATE TRIGGER IF NOT EXISTS Courses_fts_update AFTER UPDATE OF title ON Courses " +
+                "BEGIN " + unindexCourse + " " + indexCourse + " END;");
+        connection.execute("CREATE TRIGGER IF NOT EXISTS Reviews_fts_insert AFTER INSERT ON Reviews " +
+                "BEGIN " + indexReview + " END;");
+        connection.execute("CREATE TRIGGER IF NOT EXISTS Reviews_fts_delete AFTER DELETE ON Reviews " +
+                "BEGIN " + unindexReview + " END;");
+        connection.execute("CREATE TRIGGER IF NOT EXISTS Reviews_fts_update AFTER UPDATE OF comment ON Reviews " +
+                "BEGIN " + unindexReview + " " + indexReview + " END;");
+
+        if (!coursesIndexed) {
+            connection.execute("INSERT INTO CoursesFts(CoursesFts) VALUES ('rebuild')");
+        }
+        if (!reviewsIndexed) {
+            connection.execute("INSERT INTO ReviewsFts(ReviewsFts) VALUES ('rebuild')");
+        }
+    }
+
+    /**
+     * Creates the secondary indexes behind the per-user and per-course review lookups and the course search
+     * filters. The review indexes end in the rowid (reviewID), so paging through one user's or one course's
+     * reviews in reviewID order is a range scan with no sort, and counting a user's reviews never touches the
+     * table. The course index is on LOWER(courseMnemonic) to match the case-insensitive subject filter.
+     *
+     * @throws SQLException
+     */
+    private void createLookupIndexes(CachedConnection connection) throws SQLException {
+        connection.execute("CREATE INDEX IF NOT EXISTS Reviews_by_author ON Reviews(authorUsername);");
+        connection.execute("CREATE INDEX IF NOT EXISTS Reviews_by_course ON Reviews(courseID);");
+        connection.execute("CREATE INDEX IF NOT EXISTS Courses_by_subject_number " +
+                "ON Courses(LOWER(courseMnemonic), courseNumber);");
+        connection.execute("CREATE INDEX IF NOT EXISTS Courses_by_number ON Courses(courseNumber);");
+    }
+
+    /**
+     * Makes (courseMnemonic, courseNumber, title) a unique key, so duplicate courses can be skipped with
+     * INSERT OR IGNORE instead of a separate lookup. addCourse has always refused duplicates, so any found here
+     * were inserted by hand. Duplicates are merged into the copy with the lowest courseID: their reviews move
+     * to it, and where an author reviewed more than one copy, only their newest review is kept. Only then are
+     * the emptied copies deleted, so the cascade from Courses has no reviews left to take with it.
+     *
+     * @throws SQLException
+     */
+    private void createCourseKey(CachedConnection connection) throws SQLException {
+        connection.execute("CREATE TEMP TABLE CourseDuplicates AS " +
+                "SELECT c.courseID, k.keptID FROM Courses c JOIN (" +
+                "SELECT MIN(courseID) AS keptID, courseMnemonic, courseNumber, title FROM Courses " +
+                "GROUP BY courseMnemonic, courseNumber, title) k " +
+                "ON k.courseMnemonic = c.courseMnemonic AND k.courseNumber = c.courseNumber AND k.title = c.title " +
+                "WHERE c.courseID <> k.keptID;");
+        //one review per author per merged course: rank each author's reviews across the copies, newest first
+        connection.execute("DELETE FROM Reviews WHERE reviewID IN (" +
+                "SELECT reviewID FROM (SELECT r.reviewID, ROW_NUMBER() OVER (" +
+                "PARTITION BY COALESCE(d.keptID, r.courseID), r.authorUsername " +
+                "ORDER BY r.timestamp DESC, r.reviewID DESC) AS newest " +
+                "FROM Reviews r LEFT JOIN temp.CourseDuplicates d ON d.courseID = r.courseID " +
+                "WHERE COALESCE(d.keptID, r.courseID) IN (SELECT keptID FROM temp.CourseDuplicates)) " +
+                "WHERE newest > 1);");
+        connection.execute("UPDATE Reviews SET courseID = (" +
+                "SELECT keptID FROM temp.CourseDuplicates d WHERE d.courseID = Reviews.courseID) " +
+                "WHERE courseID IN (SELECT courseID FROM temp.CourseDuplicates);");
+        connection.execute("DELETE FROM Courses WHERE courseID IN (SELECT courseID FROM temp.CourseDuplicates);");
+        connection.execute("DROP TABLE temp.CourseDuplicates;");
+        connection.execute("CREATE UNIQUE INDEX IF NOT EXISTS Courses_key " +
+                "ON Courses(courseMnemonic, courseNumber, title);");
+    }
+
+    /**
+     * Drops the FTS5 index over review comments that step 3 created. Nothing searches comments, so the index
+     * only cost every review write its triggers. Step 3 is released and left as it was; a file created from
+     * scratch builds the index and drops it again straight away.
+     *
+     * @throws SQLException
+     */
+    private void dropReviewCommentIndex(CachedConnection connection) throws SQLException {
+        connection.execute("DROP TRIGGER IF EXISTS Reviews_fts_insert;");
+        connection.execute("DROP TRIGGER IF EXISTS Reviews_fts_delete;");
+        connection.execute("DROP TRIGGER IF EXISTS Reviews_fts_update;");
+        connection.execute("DROP TABLE IF EXISTS ReviewsFts;");
+    }
+
+    private boolean tableExists(CachedConnection connection, String name) throws SQLException {
+        PreparedStatement statement = connection.prepare("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?");
+        statement.setString(1, name);
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Turns free text typed by a user into an FTS5 query: every word becomes a quoted prefix term, and the
+     * terms are ANDed together. Quoting keeps FTS5 operators and punctuation in the input from being parsed
+     * as query syntax.
+     *
+     * @return the MATCH expression, or null if the text contains no searchable words
+     */
+    static String toFullTextQuery(String text) {
+        StringJoiner terms = new StringJoiner(" ");
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add("\"" + word + "\"*");
+            }
+        }
+        return terms.length() == 0 ? null : terms.toString();
     }
 
     /**
      * removes data from the tables and leaves the tables empty
      */
     public void clearTables() throws SQLException {
-        try (Statement statement = connection.createStatement()) {
-            statement.executeUpdate("DELETE FROM Reviews");
-            statement.executeUpdate("DELETE FROM Courses");
-            statement.executeUpdate("DELETE FROM Users");
-        } catch (SQLException e) {
-            rollback();
-            throw e;
-        }
+        write("clearTables", connection -> {
+            connection.execute("DELETE FROM CourseStats");
+            connection.execute("DELETE FROM Reviews");
+            connection.execute("DELETE FROM Courses");
+            connection.execute("DELETE FROM Users");
+            return null;
+        });
     }
 
     //initialize database
@@ -123,37 +614,63 @@ public class Database {
 
     //validates users upon login
     public boolean validateUser(String username, String password) throws SQLException {
-        String query = "SELECT 1 FROM Users WHERE username = ? AND password = ?";
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
+        return read("validateUser", connection -> {
+            String query = "SELECT 1 FROM Users WHERE username = ? AND password = ?";
+            PreparedStatement statement = connection.prepare(query);
             statement.setString(1, username);
             statement.setString(2, password);
-            ResultSet rs = statement.executeQuery();
-            return rs.next();
-        } 
-        catch (SQLIntegrityConstraintViolationException e) {
-            //if username already exists
-            return false;
-        } 
-        catch (SQLException e) {
-            rollback();
-            throw e;
-        }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            } 
+            catch (SQLIntegrityConstraintViolationException e) {
+                //if username already exists
+                return false;
+            }
+        });
     }    
 
     //creates users
     public boolean createUser(String username, String password) throws SQLException {
-        String query = "INSERT INTO Users(username, password) VALUES (?, ?)";
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            statement.setString(1, username);
-            statement.setString(2, password);
-            statement.executeUpdate();
+        return write("createUser", connection -> {
+            String query = "INSERT INTO Users(username, password) VALUES (?, ?)";
+            try {
+                PreparedStatement statement = connection.prepare(query);
+                statement.setString(1, username);
+                statement.setString(2, password);
+                statement.executeUpdate();
+                commit();
+                return true;
+            } 
+            catch (SQLIntegrityConstraintViolationException e) {
+                //if username already exists
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Inserts a batch of users in a single transaction, skipping usernames that are already taken.
+     *
+     * @return how many of the users were new
+     * @throws SQLException
+     */
+    public int importUsers(List<User> users) throws SQLException {
+        return write("importUsers", connection -> {
+            PreparedStatement statement = connection.prepare("INSERT OR IGNORE INTO Users(username, password) VALUES (?, ?)");
+            for (User user : users) {
+                statement.setString(1, user.getUsername());
+                statement.setString(2, user.getPassword());
+                statement.addBatch();
+            }
+            int inserted = 0;
+            for (int count : statement.executeBatch()) {
+                if (count > 0) {
+                    inserted += count;
+                }
+            }
             commit();
-            return true;
-        } 
-        catch (SQLIntegrityConstraintViolationException e) {
-            //if username already exists
-            return false;
-        }
+            return inserted;
+        });
     }
     
     /*
@@ -162,85 +679,287 @@ public class Database {
 
      //searches for courses dynamically (even if some fields are blank)
     public List<Course> searchCourses(String subject, String number, String title) throws SQLException {
-        StringBuilder query = new StringBuilder("SELECT * FROM Courses WHERE 1=1");
-        List<Object> params = new ArrayList<>();
+        return read("searchCourses", connection -> {
+            int shape = 0;
+            List<Object> params = new ArrayList<>();
     
-        if (!subject.isEmpty()) {
-            query.append(" AND LOWER(courseMnemonic) = LOWER(?)");
-            params.add(subject);
-        }
-        if (!number.isEmpty()) {
-            query.append(" AND courseNumber = ?");
-            params.add(Integer.parseInt(number));
-        }
-        if (!title.isEmpty()) {
-            query.append(" AND LOWER(title) LIKE LOWER(?)");
-            params.add("%" + title + "%");
-        }
+            if (!subject.isEmpty()) {
+                shape |= SEARCH_BY_SUBJECT;
+                params.add(subject);
+            }
+            if (!number.isEmpty()) {
+                shape |= SEARCH_BY_NUMBER;
+                params.add(Integer.parseInt(number));
+            }
+            if (!title.isEmpty()) {
+                shape |= SEARCH_BY_TITLE;
+                params.add("%" + title + "%");
+            }
     
-        try (PreparedStatement stmt = connection.prepareStatement(query.toString())) {
+            PreparedStatement stmt = connection.prepare(SEARCH_COURSES_QUERIES[shape]);
             for (int i = 0; i < params.size(); i++) {
                 stmt.setObject(i + 1, params.get(i));
             }
     
-            ResultSet rs = stmt.executeQuery();
-            List<Course> courses = new ArrayList<>();
-            while (rs.next()) {
-                courses.add(new Course(
-                    rs.getInt("courseID"),
-                    rs.getString("title"),
-                    rs.getString("courseMnemonic"),
-                    rs.getInt("courseNumber")
-                ));
-            }
-            return courses;
-        }
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Course> courses = new ArrayList<>();
+                while (rs.next()) {
+                    courses.add(new Course(
+                        rs.getInt("courseID"),
+                        rs.getString("title"),
+                        rs.getString("courseMnemonic"),
+                        rs.getInt("courseNumber")
+                    ));
+                }
+                return courses;
+            }
+        });
     }
     
     
 
+    //same filters as searchCourses, but each course comes back with its review aggregates in the same query.
+    //the title is matched as word prefixes through the full-text index, and those results are ordered by relevance
+    public List<RatedCourse> searchCoursesWithRatings(String subject, String number, String title) throws SQLException {
+        return searchCoursesPage(subject, number, title, null, 0).getItems();
+    }
+
+    /**
+     * Returns one page of searchCoursesWithRatings results. Pages are keyset-paginated: rather than skipping
+     * rows with an OFFSET, each page picks up strictly after the sort key of the previous page's last row, so
+     * a deep page costs the same as the first. Results are ordered by courseID, or by bm25 score and then
+     * courseID when searching by title.
+     *
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @param limit  the maximum number of courses in the page, or 0 for no limit
+     * @throws SQLException
+     */
+    public Page<RatedCourse> searchCoursesPage(String subject, String number, String title, String cursor, int limit)
+            throws SQLException {
+        return read("searchCoursesPage", connection -> {
+            boolean ranked = !title.isEmpty();
+            StringBuilder query = new StringBuilder(
+                    "SELECT c.courseID, c.title, c.courseMnemonic, c.courseNumber, " +
+                    "COALESCE(s.reviewCount, 0) AS reviewCount, COALESCE(s.averageRating, 0) AS averageRating");
+            List<Object> params = new ArrayList<>();
+
+            if (!ranked) {
+                query.append(" FROM Courses c LEFT JOIN CourseStats s ON s.courseID = c.courseID WHERE c.courseID > ?");
+                params.add(cursor == null ? 0 : parseCursor(cursor).id());
+            } else {
+                String match = toFullTextQuery(title);
+                if (match == null) {
+                    return Page.empty();
+                }
+                query.append(", bm25(CoursesFts) AS score FROM CoursesFts f JOIN Courses c ON c.courseID = f.rowid " +
+                        "LEFT JOIN CourseStats s ON s.courseID = c.courseID WHERE CoursesFts MATCH ?");
+                params.add(match);
+                if (cursor != null) {
+                    PageCursor after = parseCursor(cursor);
+                    query.append(" AND (bm25(CoursesFts) > ? OR (bm25(CoursesFts) = ? AND c.courseID > ?))");
+                    params.add(after.score());
+                    params.add(after.score());
+                    params.add(after.id());
+                }
+            }
+
+            if (!subject.isEmpty()) {
+                query.append(" AND LOWER(c.courseMnemonic) = LOWER(?)");
+                params.add(subject);
+            }
+            if (!number.isEmpty()) {
+                query.append(" AND c.courseNumber = ?");
+                params.add(Integer.parseInt(number));
+            }
+            query.append(ranked ? " ORDER BY score, c.courseID" : " ORDER BY c.courseID");
+            if (limit > 0) {
+                //one extra row tells us whether there is another page
+                query.append(" LIMIT ?");
+                params.add(limit + 1);
+            }
+
+            PreparedStatement stmt = connection.prepare(query.toString());
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<RatedCourse> courses = new ArrayList<>();
+                String nextCursor = null;
+                double lastScore = 0;
+                while (rs.next()) {
+                    if (limit > 0 && courses.size() == limit) {
+                        int lastID = courses.get(courses.size() - 1).course().getCourseID();
+                        nextCursor = ranked ? lastScore + CURSOR_SEPARATOR + lastID : String.valueOf(lastID);
+                        break;
+                    }
+                    courses.add(readRatedCourse(rs));
+                    if (ranked) {
+                        lastScore = rs.getDouble("score");
+                    }
+                }
+                return new Page<>(courses, nextCursor);
+            }
+        });
+    }
+
+    record PageCursor(double score, int id) {}
+
+    static PageCursor parseCursor(String cursor) {
+        try {
+            int split = cursor.indexOf(CURSOR_SEPARATOR);
+            if (split < 0) {
+                return new PageCursor(0, Integer.parseInt(cursor));
+            }
+            return new PageCursor(
+                Double.parseDouble(cursor.substring(0, split)),
+                Integer.parseInt(cursor.substring(split + 1))
+            );
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed page cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Relevance-ranked search: a course is a candidate if it matches any filled-in field (the subject exactly,
+     * the number as a prefix, or any title word as a word prefix), and the candidates are scored by
+     * CourseRanker, which also weighs in their review count and average rating. With every field blank, the
+     * whole catalog is ranked by its reviews. Candidates stream from the query into the ranker's bounded heap,
+     * so only the best limit are ever held.
+     */
+    public List<RatedCourse> searchCoursesRanked(String subject, String number, String title, int limit)
+            throws SQLException {
+        return read("searchCoursesRanked", connection -> {
+            StringBuilder query = new StringBuilder(
+                    "SELECT c.courseID, c.title, c.courseMnemonic, c.courseNumber, " +
+                    "COALESCE(s.reviewCount, 0) AS reviewCount, COALESCE(s.averageRating, 0) AS averageRating " +
+                    "FROM Courses c LEFT JOIN CourseStats s ON s.courseID = c.courseID");
+            List<String> matches = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
+
+            if (!subject.isBlank()) {
+                matches.add("LOWER(c.courseMnemonic) = LOWER(?)");
+                params.add(subject.trim());
+            }
+            //course numbers are four digits, so a prefix is a range the number index can answer
+            String digits = number.trim();
+            if (digits.matches("\\d{1,4}")) {
+                int scale = (int) Math.pow(10, 4 - digits.length());
+                int low = Integer.parseInt(digits) * scale;
+                matches.add("c.courseNumber BETWEEN ? AND ?");
+                params.add(low);
+                params.add(low + scale - 1);
+            }
+            String anyWord = toFullTextQuery(title);
+            if (anyWord != null) {
+                matches.add("c.courseID IN (SELECT rowid FROM CoursesFts WHERE CoursesFts MATCH ?)");
+                params.add(anyWord.replace("* \"", "* OR \""));
+            }
+            if (!matches.isEmpty()) {
+                query.append(" WHERE ").append(String.join(" OR ", matches));
+            }
+
+            PreparedStatement stmt = connection.prepare(query.toString());
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            CourseRanker ranker = new CourseRanker(subject, number, title, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ranker.offer(readRatedCourse(rs));
+                }
+            }
+            return ranker.results();
+        });
+    }
+
+    private RatedCourse readRatedCourse(ResultSet rs) throws SQLException {
+        return new RatedCourse(
+            new Course(
+                rs.getInt("courseID"),
+                rs.getString("title"),
+                rs.getString("courseMnemonic"),
+                rs.getInt("courseNumber")
+            ),
+            rs.getInt("reviewCount"),
+            rs.getDouble("averageRating")
+        );
+    }
+
     //add new course
     public boolean addCourse(String subject, int number, String title) throws SQLException {
-        String checkQuery = "SELECT 1 FROM Courses WHERE courseMnemonic = ? AND courseNumber = ? AND title = ?";
-        String insertQuery = "INSERT INTO Courses (courseMnemonic, courseNumber, title) VALUES (?, ?, ?)";
-        try (PreparedStatement checkStatement = connection.prepareStatement(checkQuery);
-             PreparedStatement insertStatement = connection.prepareStatement(insertQuery)) {
-            checkStatement.setString(1, subject);
-            checkStatement.setInt(2, number);
-            checkStatement.setString(3, title);
-            ResultSet rs = checkStatement.executeQuery();
-            if (!rs.next()) {
-                insertStatement.setString(1, subject);
-                insertStatement.setInt(2, number);
-                insertStatement.setString(3, title);
-                insertStatement.executeUpdate();
+        return createCourse(subject, number, title) != null;
+    }
+
+    //adds a new course and returns it with its assigned ID, or returns null if the course already exists
+    public Course createCourse(String subject, int number, String title) throws SQLException {
+        return write("createCourse", connection -> {
+            //the unique course key turns a duplicate into a no-op, so there is no need to look it up first
+            PreparedStatement insertStatement = connection.prepare(INSERT_COURSE);
+            insertStatement.setString(1, subject);
+            insertStatement.setInt(2, number);
+            insertStatement.setString(3, title);
+            if (insertStatement.executeUpdate() > 0) {
+                int courseID;
+                try (ResultSet rs = connection.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                    rs.next();
+                    courseID = rs.getInt(1);
+                }
                 commit();
-                return true;
+                return new Course(courseID, title, subject, number);
             } else {
-                return false; 
+                return null; 
             } 
-        } catch (SQLException e) {
-            rollback();
-            throw e;
-        }
+        });
+    }
+
+    /**
+     * Inserts a batch of courses in a single transaction, skipping any that already exist. The courses' IDs
+     * are ignored; new ones are assigned.
+     *
+     * @return how many of the courses were new
+     * @throws SQLException
+     */
+    public int importCourses(List<Course> courses) throws SQLException {
+        return write("importCourses", connection -> {
+            PreparedStatement statement = connection.prepare(INSERT_COURSE);
+            for (Course course : courses) {
+                statement.setString(1, course.getMnemonic());
+                statement.setInt(2, course.getNumber());
+                statement.setString(3, course.getTitle());
+                statement.addBatch();
+            }
+            //an ignored duplicate reports an update count of 0
+            int inserted = 0;
+            for (int count : statement.executeBatch()) {
+                if (count > 0) {
+                    inserted += count;
+                }
+            }
+            commit();
+            return inserted;
+        });
     }
 
     //retrievs a list of all courses
     public List<Course> getAllCourses() throws SQLException {
-        String query = "SELECT courseID, title, courseMnemonic, courseNumber FROM Courses";
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            ResultSet rs = statement.executeQuery();
-            List<Course> courses = new ArrayList<>();
-            while (rs.next()) {
-                courses.add(new Course(
-                    rs.getInt("courseID"),
-                    rs.getString("title"),
-                    rs.getString("courseMnemonic"),
-                    rs.getInt("courseNumber")
-                ));
-            }
-            return courses;
-        }
+        return read("getAllCourses", connection -> {
+            String query = "SELECT courseID, title, courseMnemonic, courseNumber FROM Courses";
+            PreparedStatement statement = connection.prepare(query);
+            try (ResultSet rs = statement.executeQuery()) {
+                List<Course> courses = new ArrayList<>();
+                while (rs.next()) {
+                    courses.add(new Course(
+                        rs.getInt("courseID"),
+                        rs.getString("title"),
+                        rs.getString("courseMnemonic"),
+                        rs.getInt("courseNumber")
+                    ));
+                }
+                return courses;
+            }
+        });
     }    
     
     //METHODS UNDER FOR REVIEWS PORTION OF PROJECT
@@ -250,87 +969,317 @@ public class Database {
             .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
 }
 
+    //all of the reviews go to SQLite as one JDBC batch and are committed together
     public void addReviews(List<Review> reviews) throws SQLException {
-        String upsertReview = "REPLACE INTO Reviews(courseID, authorUsername, rating, comment, timestamp) " +
-                             "VALUES (?, ?, ?, ?, ?)";
-    
-        try (PreparedStatement statement = connection.prepareStatement(upsertReview)) {
+        write("addReviews", connection -> {
+            PreparedStatement statement = connection.prepare(UPSERT_REVIEW);
             String currentESTTime = getCurrentESTTime();
             for (Review review : reviews) {
-                statement.setInt(1, review.getCourseID());
-                statement.setString(2, review.getAuthorUsername());
-                statement.setDouble(3, review.getRating());
-                statement.setString(4, review.getComment());
-                statement.setString(5, currentESTTime);
-                statement.executeUpdate();
+                bindUpsert(statement, review, currentESTTime);
+                statement.addBatch();
             }
+            statement.executeBatch();
             commit();
-        } catch (SQLException e) {
-            System.err.println("Error adding reviews: " + e.getMessage());
-            e.printStackTrace();
-            rollback();
-            throw e;
-        }
+            Set<Integer> courseIDs = new HashSet<>();
+            for (Review review : reviews) {
+                courseIDs.add(review.getCourseID());
+            }
+            reviewsChanged(courseIDs);
+            return null;
+        });
     }
 
     public void deleteReview(int courseID, String authorUsername) throws SQLException {
-        String deleteSQL = "DELETE FROM Reviews WHERE courseID = ? AND authorUsername = ?";
-        
-        try (PreparedStatement statement = connection.prepareStatement(deleteSQL)) {
+        write("deleteReview", connection -> {
+            PreparedStatement statement = connection.prepare(DELETE_REVIEW);
             statement.setInt(1, courseID);
             statement.setString(2, authorUsername);
             statement.executeUpdate();
             commit();
-        } catch (SQLException e) {
-            rollback();
-            throw e;
-        }
+            reviewsChanged(List.of(courseID));
+            return null;
+        });
+    }
+
+    /**
+     * Applies a batch of review upserts and deletes, in order, as a single transaction with a single commit.
+     * Either every write in the batch takes effect or none of them do. Consecutive writes of the same kind are
+     * sent as one JDBC batch; the batch is flushed whenever the kind changes so the writes still apply in order.
+     *
+     * @throws SQLException
+     */
+    public void applyReviewWrites(List<ReviewWrite> writes) throws SQLException {
+        write("applyReviewWrites", connection -> {
+            PreparedStatement upsert = connection.prepare(UPSERT_REVIEW);
+            PreparedStatement delete = connection.prepare(DELETE_REVIEW);
+            String currentESTTime = getCurrentESTTime();
+            PreparedStatement pending = null;
+            Set<Integer> courseIDs = new HashSet<>();
+            for (ReviewWrite write : writes) {
+                courseIDs.add(write.courseID());
+                PreparedStatement statement = write.isDelete() ? delete : upsert;
+                if (pending != null && pending != statement) {
+                    pending.executeBatch();
+                }
+                if (write.isDelete()) {
+                    delete.setInt(1, write.courseID());
+                    delete.setString(2, write.authorUsername());
+                } else {
+                    bindUpsert(upsert, write.review(), currentESTTime);
+                }
+                statement.addBatch();
+                pending = statement;
+            }
+            if (pending != null) {
+                pending.executeBatch();
+            }
+            commit();
+            reviewsChanged(courseIDs);
+            return null;
+        });
+    }
+
+    private void bindUpsert(PreparedStatement statement, Review review, String timestamp) throws SQLException {
+        statement.setInt(1, review.getCourseID());
+        statement.setString(2, review.getAuthorUsername());
+        statement.setDouble(3, review.getRating());
+        statement.setString(4, review.getComment());
+        statement.setString(5, timestamp);
     }
 
     public List<Review> getReviewsByCourse(Course course) throws SQLException {
-        String query = "SELECT * FROM Reviews WHERE courseID = ?";  
+        return read("getReviewsByCourse", connection -> {
+            String query = "SELECT * FROM Reviews WHERE courseID = ? ORDER BY reviewID";  
         
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            PreparedStatement statement = connection.prepare(query);
             statement.setInt(1, course.getCourseID());
-            ResultSet rs = statement.executeQuery();
+            try (ResultSet rs = statement.executeQuery()) {
     
-            List<Review> reviews = new ArrayList<>();
-            while (rs.next()) {
-                Review review = new Review(
-                    rs.getInt("reviewID"),
-                    rs.getInt("courseID"),
-                    rs.getString("authorUsername"),
-                    rs.getDouble("rating"),
-                    rs.getString("comment"),
-                    rs.getString("timestamp")
-                );
-                reviews.add(review);
-            }
-            return reviews;
+                List<Review> reviews = new ArrayList<>();
+                while (rs.next()) {
+                    Review review = new Review(
+                        rs.getInt("reviewID"),
+                        rs.getInt("courseID"),
+                        rs.getString("authorUsername"),
+                        rs.getDouble("rating"),
+                        rs.getString("comment"),
+                        rs.getString("timestamp")
+                    );
+                    reviews.add(review);
+                }
+                return reviews;
+            }
+        });
+    }
+
+    //returns the review aggregates for a course, or empty stats if it has no reviews
+    public CourseStats getCourseStats(Course course) throws SQLException {
+        return getCourseStats(List.of(course)).get(course.getCourseID());
+    }
+
+    //returns the review aggregates for each of the given courses, keyed by courseID
+    public Map<Integer, CourseStats> getCourseStats(Collection<Course> courses) throws SQLException {
+        return read("getCourseStats", connection -> {
+            Map<Integer, CourseStats> stats = new HashMap<>();
+            List<Integer> courseIDs = new ArrayList<>();
+            for (Course course : courses) {
+                stats.put(course.getCourseID(), CourseStats.empty(course.getCourseID()));
+                courseIDs.add(course.getCourseID());
+            }
+
+            //SQLite caps the number of bound parameters per statement, so look the IDs up in chunks
+            for (int start = 0; start < courseIDs.size(); start += ID_LOOKUP_CHUNK) {
+                List<Integer> chunk = courseIDs.subList(start, Math.min(start + ID_LOOKUP_CHUNK, courseIDs.size()));
+                PreparedStatement statement = prepareIdLookup(connection,
+                        "SELECT courseID, reviewCount, ratingSum FROM CourseStats WHERE courseID", chunk);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        int courseID = rs.getInt("courseID");
+                        stats.put(courseID, new CourseStats(
+                            courseID,
+                            rs.getInt("reviewCount"),
+                            rs.getDouble("ratingSum")
+                        ));
+                    }
+                }
+            }
+            return stats;
+        });
+    }
+
+    //prepares "<select> IN (...)" bound to a chunk of IDs. The IN list is padded to a power of two by repeating
+    //the last ID, so lookups of any size share a handful of cached statements
+    private PreparedStatement prepareIdLookup(CachedConnection connection, String select, List<Integer> ids)
+            throws SQLException {
+        int listSize = Integer.highestOneBit(ids.size());
+        if (listSize < ids.size()) {
+            listSize <<= 1;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(listSize, "?"));
+        PreparedStatement statement = connection.prepare(select + " IN (" + placeholders + ")");
+        for (int i = 0; i < listSize; i++) {
+            statement.setInt(i + 1, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return statement;
+    }
+
+    private Course readCourse(ResultSet rs) throws SQLException {
+        return new Course(
+            rs.getInt("courseID"),
+            rs.getString("title"),
+            rs.getString("courseMnemonic"),
+            rs.getInt("courseNumber")
+        );
+    }
+
+    /**
+     * Returns a page of a user's reviews joined with their courses, in the order they were first posted.
+     * The join walks the Reviews_by_author index and looks each course up by primary key, so the cost depends
+     * on the number of reviews returned and not on the size of the catalog.
+     *
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @param limit  the maximum number of reviews in the page, or 0 for no limit
+     * @throws SQLException
+     */
+    public Page<ReviewWithCourse> getReviewsWithCoursesByUserPage(String username, String cursor, int limit)
+            throws SQLException {
+        return read("getReviewsWithCoursesByUserPage", connection -> {
+            String query = "SELECT r.reviewID, r.courseID, r.authorUsername, r.rating, r.comment, r.timestamp, " +
+                    "c.title, c.courseMnemonic, c.courseNumber " +
+                    "FROM Reviews r JOIN Courses c ON c.courseID = r.courseID " +
+                    "WHERE r.authorUsername = ? AND r.reviewID > ? ORDER BY r.reviewID";
+            if (limit > 0) {
+                query += " LIMIT ?";
+            }
+
+            PreparedStatement statement = connection.prepare(query);
+            statement.setString(1, username);
+            statement.setInt(2, cursor == null ? 0 : parseCursor(cursor).id());
+            if (limit > 0) {
+                statement.setInt(3, limit + 1);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                List<ReviewWithCourse> reviews = new ArrayList<>();
+                String nextCursor = null;
+                while (rs.next()) {
+                    if (limit > 0 && reviews.size() == limit) {
+                        nextCursor = String.valueOf(reviews.get(limit - 1).review().getReviewID());
+                        break;
+                    }
+                    reviews.add(new ReviewWithCourse(readReview(rs), readCourse(rs)));
+                }
+                return new Page<>(reviews, nextCursor);
+            }
+        });
+    }
+
+    public int countReviewsByUser(User user) throws SQLException {
+        return read("countReviewsByUser", connection -> {
+            String query = "SELECT COUNT(*) FROM Reviews WHERE authorUsername = ?";
+
+            PreparedStatement statement = connection.prepare(query);
+            statement.setString(1, user.getUsername());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
+
+    private Review readReview(ResultSet rs) throws SQLException {
+        return new Review(
+            rs.getInt("reviewID"),
+            rs.getInt("courseID"),
+            rs.getString("authorUsername"),
+            rs.getDouble("rating"),
+            rs.getString("comment"),
+            rs.getString("timestamp")
+        );
+    }
+
+    /**
+     * Streams every review, joined with its course, to the handler in reviewID order. Rows are read from a
+     * forward-only cursor a fetch at a time and handed over as they arrive, so no list of reviews is ever built.
+     * The export holds one pooled reader, and its snapshot of the database, until it finishes.
+     *
+     * @return the number of reviews streamed
+     * @throws SQLException
+     * @throws IOException if the handler fails; the export stops at that row
+     */
+    public long streamReviews(RowHandler<ReviewWithCourse> handler) throws SQLException, IOException {
+        String query = "SELECT r.reviewID, r.courseID, r.authorUsername, r.rating, r.comment, r.timestamp, " +
+                "c.title, c.courseMnemonic, c.courseNumber " +
+                "FROM Reviews r JOIN Courses c ON c.courseID = r.courseID ORDER BY r.reviewID";
+        return stream("streamReviews", query, rs -> new ReviewWithCourse(readReview(rs), readCourse(rs)), handler);
+    }
+
+    /**
+     * Streams every course with its review count and average rating to the handler in courseID order, the
+     * same way as streamReviews.
+     *
+     * @return the number of courses streamed
+     * @throws SQLException
+     * @throws IOException if the handler fails; the export stops at that row
+     */
+    public long streamCourseStats(RowHandler<RatedCourse> handler) throws SQLException, IOException {
+        String query = "SELECT c.courseID, c.title, c.courseMnemonic, c.courseNumber, " +
+                "COALESCE(s.reviewCount, 0) AS reviewCount, COALESCE(s.averageRating, 0) AS averageRating " +
+                "FROM Courses c LEFT JOIN CourseStats s ON s.courseID = c.courseID ORDER BY c.courseID";
+        return stream("streamCourseStats", query, this::readRatedCourse, handler);
+    }
+
+    @FunctionalInterface
+    private interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    private <T> long stream(String operation, String query, RowReader<T> reader, RowHandler<T> handler)
+            throws SQLException, IOException {
+        try {
+            return read(operation, connection -> {
+                PreparedStatement statement = connection.prepare(query);
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                long rows = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        try {
+                            handler.handle(reader.read(rs));
+                        } catch (IOException e) {
+                            //carried out of the lambda, which can only throw SQLException
+                            throw new UncheckedIOException(e);
+                        }
+                        rows++;
+                    }
+                }
+                return rows;
+            }, rows -> rows);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
     public List<Review> getReviewsByUser(User user) throws SQLException {
-        String query = "SELECT reviewID, courseID, authorUsername, rating, comment, timestamp " +
-                "FROM Reviews WHERE authorUsername = ?";
+        return read("getReviewsByUser", connection -> {
+            String query = "SELECT reviewID, courseID, authorUsername, rating, comment, timestamp " +
+                    "FROM Reviews WHERE authorUsername = ?";
 
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            PreparedStatement statement = connection.prepare(query);
             statement.setString(1, user.getUsername());
-            ResultSet rs = statement.executeQuery();
+            try (ResultSet rs = statement.executeQuery()) {
 
-            List<Review> reviews = new ArrayList<>();
-            while (rs.next()) {
-                int reviewID = rs.getInt("reviewID");
-                int courseID = rs.getInt("courseID");
-                String authorUsername = rs.getString("authorUsername");
-                double rating = rs.getDouble("rating");
-                String comment = rs.getString("comment");
-                String timestamp = rs.getString("timestamp");
+                List<Review> reviews = new ArrayList<>();
+                while (rs.next()) {
+                    int reviewID = rs.getInt("reviewID");
+                    int courseID = rs.getInt("courseID");
+                    String authorUsername = rs.getString("authorUsername");
+                    double rating = rs.getDouble("rating");
+                    String comment = rs.getString("comment");
+                    String timestamp = rs.getString("timestamp");
 
-                reviews.add(new Review(reviewID, courseID, authorUsername, rating, comment, timestamp));
+                    reviews.add(new Review(reviewID, courseID, authorUsername, rating, comment, timestamp));
+                }
+                return reviews;
             }
-            return reviews;
-        }
+        });
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package edu.virginia.sde.reviews;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings for one Database: an OperationTimer per public method, created the first time the method is called,
+ * plus commit and rollback counts and how long callers waited for the writer lock or a pooled reader.
+ *
+ * Once {@link #registerMBeans} is called everything shows up in jconsole or VisualVM under
+ * edu.virginia.sde.reviews, with one node per method, so the slow calls behind a screen can be spotted
+ * while the app is running.
+ */
+public class DatabaseMetrics implements DatabaseMetricsMBean {
+
+    private static final String DOMAIN = "edu.virginia.sde.reviews";
+    private static final Logger log = LoggerFactory.getLogger(DatabaseMetrics.class);
+
+    private final Map<String, OperationTimer> timers = new ConcurrentHashMap<>();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LatencyHistogram readerWait = new LatencyHistogram();
+    private final LatencyHistogram writerWait = new LatencyHistogram();
+    private volatile String registeredName;
+
+    /**
+     * The number of rows a Database method returned, as far as it can be told from its result: the size of a
+     * list, map or page, 0 for null, false or void, and 1 for any single value.
+     */
+    static long countRows(Object result) {
+        if (result == null || Boolean.FALSE.equals(result)) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Page<?> page) {
+            return page.getItems().size();
+        }
+        return 1;
+    }
+
+    OperationTimer getTimer(String operation) {
+        OperationTimer timer = timers.get(operation);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(operation, OperationTimer::new);
+            if (registeredName != null) {
+                register(registeredName, timer);
+            }
+        }
+        return timer;
+    }
+
+    public Collection<OperationTimer> getTimers() {
+        return timers.values();
+    }
+
+    void recordCommit() {
+        commits.increment();
+    }
+
+    void recordRollback() {
+        rollbacks.increment();
+    }
+
+    void recordReaderWait(long nanos) {
+        readerWait.record(nanos);
+    }
+
+    void recordWriterWait(long nanos) {
+        writerWait.record(nanos);
+    }
+
+    @Override
+    public long getCommitCount() {
+        return commits.sum();
+    }
+
+    @Override
+    public long getRollbackCount() {
+        return rollbacks.sum();
+    }
+
+    @Override
+    public long getReaderWaitCount() {
+        return readerWait.getCount();
+    }
+
+    @Override
+    public double getReaderWaitP99Millis() {
+        return readerWait.getPercentileMicros(99) / 1000.0;
+    }
+
+    @Override
+    public double getReaderWaitMaxMillis() {
+        return readerWait.getMaxMicros() / 1000.0;
+    }
+
+    @Override
+    public long getWriterWaitCount() {
+        return writerWait.getCount();
+    }
+
+    @Override
+    public double getWriterWaitP99Millis() {
+        return writerWait.getPercentileMicros(99) / 1000.0;
+    }
+
+    @Override
+    public double getWriterWaitMaxMillis() {
+        return writerWait.getMaxMicros() / 1000.0;
+    }
+
+    @Override
+    public String[] getOperationNames() {
+        return timers.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    /**
+     * Publishes these metrics on the platform MBean server under the given name, which tells apart several
+     * databases open in one process. Methods first called later are published as they appear.
+     * Failures are logged at WARN and otherwise ignored, since the app works the same without them.
+     */
+    public synchronized void registerMBeans(String name) {
+        if (registeredName != null) {
+            return;
+        }
+        registeredName = name;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName(name, null));
+        } catch (InstanceAlreadyExistsException e) {
+            log.warn("Database metrics are already registered as {}", name);
+        } catch (JMException e) {
+            log.warn("Could not register the database metrics as {}", name, e);
+        }
+        for (OperationTimer timer : timers.values()) {
+            register(name, timer);
+        }
+    }
+
+    public synchronized void unregisterMBeans() {
+        String name = registeredName;
+        if (name == null) {
+            return;
+        }
+        registeredName = null;
+        unregister(objectName(name, null));
+        for (OperationTimer timer : timers.values()) {
+            unregister(objectName(name, timer.getName()));
+        }
+    }
+
+    private static void unregister(ObjectName objectName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException ignored) {
+            //never made it onto the server
+        } catch (JMException e) {
+            log.warn("Could not unregister {}", objectName, e);
+        }
+    }
+
+    private synchronized void register(String name, OperationTimer timer) {
+        if (!name.equals(registeredName)) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(timer, objectName(name, timer.getName()));
+        } catch (InstanceAlreadyExistsException ignored) {
+            //published by registerMBeans and by the first call at the same time
+        } catch (JMException e) {
+            log.warn("Could not register the {} timer of {}", timer.getName(), name, e);
+        }
+    }
+
+    private static ObjectName objectName(String name, String operation) {
+        String objectName = DOMAIN + ":type=Database,name=" + ObjectName.quote(name);
+        if (operation != null) {
+            objectName += ",operation=" + operation;
+        }
+        try {
+            return new ObjectName(objectName);
+        } catch (MalformedObjectNameException e) {
+            //the name is quoted and operations are method names, so this can't happen
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
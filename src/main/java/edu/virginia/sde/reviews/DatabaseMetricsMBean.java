@@ -0,0 +1,26 @@
+package edu.virginia.sde.reviews;
+
+/**
+ * The JMX view of a Database's connection-level counters. The timings of each method are published
+ * separately, one OperationTimerMBean per method.
+ */
+public interface DatabaseMetricsMBean {
+
+    long getCommitCount();
+
+    long getRollbackCount();
+
+    long getReaderWaitCount();
+
+    double getReaderWaitP99Millis();
+
+    double getReaderWaitMaxMillis();
+
+    long getWriterWaitCount();
+
+    double getWriterWaitP99Millis();
+
+    double getWriterWaitMaxMillis();
+
+    String[] getOperationNames();
+}
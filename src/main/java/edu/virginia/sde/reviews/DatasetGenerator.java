@@ -0,0 +1,248 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Fills a database with synthetic users, courses and reviews at whatever scale is asked for, so production-sized
+ * data can be reproduced locally. Course popularity follows a Zipf distribution, so a few courses collect most
+ * of the reviews the way real catalogs do, and comment lengths are drawn from a log-normal distribution with a
+ * share of rating-only reviews. The same seed always produces the same data.
+ *
+ * Generated users are named user0, user1, ... with passwords password0, password1, ..., so a load test can
+ * log in as any of them.
+ *
+ *     ./gradlew generateDataset --args="--db course_reviews.db --users 10000 --courses 5000 --reviews 200000"
+ */
+public class DatasetGenerator {
+
+    public record Summary(int users, int courses, long reviews, long elapsedNanos) {}
+
+    private static final String[] SUBJECTS = {
+        "CS", "DS", "ECE", "APMA", "MATH", "STAT", "PHYS", "CHEM", "BIOL", "ASTR", "ECON", "COMM", "PSYC", "SOC",
+        "HIST", "PHIL", "RELG", "ENWR", "ENGL", "SPAN", "FREN", "GERM", "CHIN", "JAPN", "MUSI", "ARTH", "DRAM",
+        "PLCP", "PLIR", "STS"
+    };
+    private static final String[] TOPICS = {
+        "Algorithms", "Data Structures", "Operating Systems", "Machine Learning", "Linear Algebra", "Calculus",
+        "Probability", "Statistics", "Thermodynamics", "Mechanics", "Organic Chemistry", "Genetics", "Cell Biology",
+        "Microeconomics", "Macroeconomics", "Public Speaking", "Cognition", "World History", "Ethics", "Logic",
+        "Poetry", "Film", "Music Theory", "Art History", "Political Theory", "Networks", "Databases", "Compilers",
+        "Cryptography", "Signal Processing", "Circuits", "Astrophysics", "Ecology", "Neuroscience", "Sociology"
+    };
+    private static final String[] TITLE_TEMPLATES = {
+        "Introduction to %s", "Advanced %s", "Topics in %s", "%s Seminar", "Foundations of %s", "Applied %s"
+    };
+    private static final String[] SECTIONS = {"", " II", " III", " IV", " V", " VI", " VII", " VIII"};
+    private static final String[] COMMENT_WORDS = {
+        "the", "lectures", "were", "really", "clear", "and", "homework", "was", "hard", "but", "fair", "professor",
+        "exams", "long", "interesting", "material", "would", "recommend", "this", "course", "to", "anyone", "labs",
+        "took", "forever", "grading", "generous", "office", "hours", "helpful", "readings", "boring", "projects",
+        "fun", "learned", "a", "lot", "workload", "heavy", "TA", "great", "curve", "quizzes", "every", "week"
+    };
+    //chance of each star rating, 1 to 5; real reviews lean positive
+    private static final double[] RATING_WEIGHTS = {0.05, 0.10, 0.20, 0.35, 0.30};
+    private static final double EMPTY_COMMENT_CHANCE = 0.25;
+    private static final double MEDIAN_COMMENT_LENGTH = 120;
+    private static final int MAX_COMMENT_LENGTH = 2000;
+    private static final int BATCH_SIZE = 10_000;
+    //how many times to redraw a course the user already reviewed before giving up on that review
+    private static final int MAX_DRAWS = 20;
+
+    private final int users;
+    private final int courses;
+    private final long reviews;
+    private final double zipfExponent;
+    private final Random random;
+
+    public DatasetGenerator(int users, int courses, long reviews, long seed) {
+        this(users, courses, reviews, 1.0, seed);
+    }
+
+    public DatasetGenerator(int users, int courses, long reviews, double zipfExponent, long seed) {
+        if (users < 1 || courses < 1 || reviews < 0) {
+            throw new IllegalArgumentException("Need at least one user and one course, and no negative reviews");
+        }
+        if (reviews > (long) users * courses) {
+            throw new IllegalArgumentException("Each user can review a course only once, so there can be at most " +
+                    ((long) users * courses) + " reviews");
+        }
+        this.users = users;
+        this.courses = courses;
+        this.reviews = reviews;
+        this.zipfExponent = zipfExponent;
+        this.random = new Random(seed);
+    }
+
+    public static String username(int i) {
+        return "user" + i;
+    }
+
+    public static String password(int i) {
+        return "password" + i;
+    }
+
+    /**
+     * Adds the generated data to a connected database whose tables already exist.
+     */
+    public Summary generate(Database database) throws SQLException {
+        long start = System.nanoTime();
+
+        List<User> newUsers = new ArrayList<>(Math.min(users, BATCH_SIZE));
+        for (int i = 0; i < users; i++) {
+            newUsers.add(new User(username(i), password(i)));
+            if (newUsers.size() == BATCH_SIZE || i == users - 1) {
+                database.importUsers(newUsers);
+                newUsers.clear();
+            }
+        }
+
+        List<Course> newCourses = new ArrayList<>(Math.min(courses, BATCH_SIZE));
+        for (int i = 0; i < courses; i++) {
+            newCourses.add(generateCourse(i));
+            if (newCourses.size() == BATCH_SIZE || i == courses - 1) {
+                database.importCourses(newCourses);
+                newCourses.clear();
+            }
+        }
+
+        //rank 0 is the most popular course; shuffle so popularity has nothing to do with courseID
+        List<Course> byPopularity = new ArrayList<>(database.getAllCourses());
+        Collections.shuffle(byPopularity, random);
+        double[] popularity = zipfCumulative(byPopularity.size());
+
+        Set<Long> reviewed = new HashSet<>();
+        List<Review> batch = new ArrayList<>(BATCH_SIZE);
+        long written = 0;
+        for (long i = 0; i < reviews; i++) {
+            int user = random.nextInt(users);
+            Course course = null;
+            for (int draw = 0; draw < MAX_DRAWS && course == null; draw++) {
+                Course candidate = byPopularity.get(sample(popularity));
+                if (reviewed.add((long) user * Integer.MAX_VALUE + candidate.getCourseID())) {
+                    course = candidate;
+                }
+            }
+            if (course == null) {
+                continue;
+            }
+            batch.add(new Review(0, course.getCourseID(), username(user), generateRating(), generateComment()));
+            if (batch.size() == BATCH_SIZE) {
+                database.addReviews(batch);
+                written += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            database.addReviews(batch);
+            written += batch.size();
+        }
+
+        return new Summary(users, courses, written, System.nanoTime() - start);
+    }
+
+    private Course generateCourse(int i) {
+        String subject = SUBJECTS[i % SUBJECTS.length];
+        int number = 1000 + (i / SUBJECTS.length) % 9000;
+        //past 9000 courses per subject the numbers repeat, so a section suffix keeps the key unique
+        String section = SECTIONS[(i / (SUBJECTS.length * 9000)) % SECTIONS.length];
+        String topic = TOPICS[random.nextInt(TOPICS.length)];
+        String title = String.format(TITLE_TEMPLATES[random.nextInt(TITLE_TEMPLATES.length)], topic) + section;
+        return new Course(0, title, subject, number);
+    }
+
+    private int generateRating() {
+        double roll = random.nextDouble();
+        for (int i = 0; i < RATING_WEIGHTS.length; i++) {
+            roll -= RATING_WEIGHTS[i];
+            if (roll < 0) {
+                return i + 1;
+            }
+        }
+        return RATING_WEIGHTS.length;
+    }
+
+    private String generateComment() {
+        if (random.nextDouble() < EMPTY_COMMENT_CHANCE) {
+            return "";
+        }
+        double length = Math.exp(Math.log(MEDIAN_COMMENT_LENGTH) + 0.8 * random.nextGaussian());
+        int target = (int) Math.min(MAX_COMMENT_LENGTH, Math.max(10, length));
+        StringBuilder comment = new StringBuilder(target + 16);
+        while (comment.length() < target) {
+            if (comment.length() > 0) {
+                comment.append(' ');
+            }
+            comment.append(COMMENT_WORDS[random.nextInt(COMMENT_WORDS.length)]);
+        }
+        return comment.toString();
+    }
+
+    //cumulative probabilities of a Zipf distribution over ranks 0..n-1
+    private double[] zipfCumulative(int n) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1.0 / Math.pow(rank + 1, zipfExponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    private int sample(double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    //0 on success, 1 if generation failed and 2 for bad arguments
+    static int run(String[] args) {
+        String databaseFile = "course_reviews.db";
+        int users = 1000, courses = 2000;
+        long reviews = 20_000, seed = 1;
+        double zipfExponent = 1.0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--db" -> databaseFile = args[++i];
+                    case "--users" -> users = Integer.parseInt(args[++i]);
+                    case "--courses" -> courses = Integer.parseInt(args[++i]);
+                    case "--reviews" -> reviews = Long.parseLong(args[++i]);
+                    case "--zipf" -> zipfExponent = Double.parseDouble(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    default -> throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("usage: DatasetGenerator [--db <sqlite file>] [--users N] [--courses N] [--reviews N] " +
+                    "[--zipf exponent] [--seed N]");
+            return 2;
+        }
+
+        Database database = new Database(databaseFile, 1);
+        try {
+            database.connect();
+            database.createTables();
+            Summary summary = new DatasetGenerator(users, courses, reviews, zipfExponent, seed).generate(database);
+            System.out.printf("Generated %d users, %d courses and %d reviews in %.1f s%n",
+                    summary.users(), summary.courses(), summary.reviews(), summary.elapsedNanos() / 1e9);
+        } catch (Exception e) {
+            System.err.println("Generation failed: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            try {
+                database.disconnect();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return 0;
+    }
+}
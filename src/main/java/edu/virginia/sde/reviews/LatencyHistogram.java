@@ -0,0 +1,58 @@
+package edu.virginia.sde.reviews;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of latencies that many threads can record into at once. Buckets grow geometrically
+ * by 2%, so percentiles come back within 2% of the true value from one microsecond up to an hour, in a few
+ * kilobytes regardless of how many samples are recorded.
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.02;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    //enough buckets to reach past an hour, in microseconds
+    private static final int BUCKETS = (int) Math.ceil(Math.log(3_600_000_000.0) / LOG_GROWTH) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int bucket = (int) Math.min(BUCKETS - 1, Math.log(micros) / LOG_GROWTH);
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency, in microseconds, that the given share of samples were at or under
+     */
+    public long getPercentileMicros(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= Math.max(1, rank)) {
+                //report the top of the bucket, capped at the largest value actually seen
+                return Math.min(max.get(), (long) Math.ceil(Math.pow(GROWTH, bucket + 1)));
+            }
+        }
+        return max.get();
+    }
+}
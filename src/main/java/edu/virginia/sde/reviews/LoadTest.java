@@ -0,0 +1,220 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a database with many simulated users at once, each logging in and then repeatedly searching, opening
+ * a course's reviews, and now and then submitting a review, the same calls the screens make. Reviews go through
+ * the ReviewWriteQueue as they do in the app. At the end it prints, for each flow, the throughput, p50/p99/max
+ * latency, errors, and how many calls failed with SQLITE_BUSY.
+ *
+ * Point it at a database filled by DatasetGenerator, with --accounts set to the generator's user count:
+ *
+ *     ./gradlew loadTest --args="--db course_reviews.db --accounts 10000 --clients 200 --seconds 60"
+ */
+public class LoadTest {
+
+    private static final int SQLITE_BUSY = 5;
+    private static final int PAGE_SIZE = 50;
+    private static final String[] SEARCH_WORDS = {"intro", "advanced", "data", "theory", "history", "seminar"};
+
+    private enum Flow { LOGIN, SEARCH, VIEW_REVIEWS, SUBMIT_REVIEW }
+
+    private static class FlowStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong busy = new AtomicLong();
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private final Database database;
+    private final ReviewWriteQueue reviewWrites;
+    private final List<Course> catalog;
+    private final int accounts;
+    private final int searchPercent, viewPercent;
+    private final long thinkMillis;
+    private final FlowStats[] stats = new FlowStats[Flow.values().length];
+
+    public LoadTest(Database database, int accounts, int searchPercent, int viewPercent, long thinkMillis)
+            throws SQLException {
+        this.database = database;
+        this.reviewWrites = new ReviewWriteQueue(database);
+        this.catalog = database.getAllCourses();
+        this.accounts = accounts;
+        this.searchPercent = searchPercent;
+        this.viewPercent = viewPercent;
+        this.thinkMillis = thinkMillis;
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new FlowStats();
+        }
+        if (catalog.isEmpty()) {
+            throw new IllegalStateException("The database has no courses; fill it with DatasetGenerator first");
+        }
+    }
+
+    /**
+     * Runs the given number of simulated users for the given time, then waits for them to finish their
+     * current flow.
+     */
+    public void run(int clients, long seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = newClientExecutor();
+        for (int i = 0; i < clients; i++) {
+            executor.execute(() -> simulateUser(deadline));
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        reviewWrites.shutdown();
+    }
+
+    //virtual threads when running on Java 21 or later, otherwise one platform thread per simulated user
+    private static ExecutorService newClientExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void simulateUser(long deadline) {
+        Random random = ThreadLocalRandom.current();
+        int account = random.nextInt(accounts);
+        String username = DatasetGenerator.username(account);
+        time(Flow.LOGIN, () -> database.validateUser(username, DatasetGenerator.password(account)));
+
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(100);
+            if (roll < searchPercent) {
+                time(Flow.SEARCH, () -> search(random));
+            } else if (roll < searchPercent + viewPercent) {
+                Course course = catalog.get(random.nextInt(catalog.size()));
+                time(Flow.VIEW_REVIEWS, () -> database.getReviewsByCourse(course));
+            } else {
+                Course course = catalog.get(random.nextInt(catalog.size()));
+                Review review = new Review(0, course.getCourseID(), username, 1 + random.nextInt(5),
+                        "Load test review from " + username);
+                time(Flow.SUBMIT_REVIEW, () -> reviewWrites.upsert(review).join());
+            }
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(random.nextLong(thinkMillis * 2 + 1));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void search(Random random) throws SQLException {
+        switch (random.nextInt(3)) {
+            case 0 -> database.searchCoursesPage("", "", "", null, PAGE_SIZE);
+            case 1 -> {
+                Course course = catalog.get(random.nextInt(catalog.size()));
+                database.searchCoursesPage(course.getMnemonic(), "", "", null, PAGE_SIZE);
+            }
+            default -> database.searchCoursesPage("", "", SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)],
+                    null, PAGE_SIZE);
+        }
+    }
+
+    private void time(Flow flow, Call call) {
+        FlowStats flowStats = stats[flow.ordinal()];
+        long start = System.nanoTime();
+        try {
+            call.run();
+            flowStats.latency.record(System.nanoTime() - start);
+        } catch (Exception e) {
+            flowStats.errors.incrementAndGet();
+            if (isBusy(e)) {
+                flowStats.busy.incrementAndGet();
+            }
+        }
+    }
+
+    private static boolean isBusy(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        //the low byte of an extended result code is the primary code
+        return e instanceof SQLException sql && (sql.getErrorCode() & 0xff) == SQLITE_BUSY;
+    }
+
+    public void printReport(long seconds) {
+        System.out.printf("%-14s %10s %10s %10s %10s %10s %8s %8s%n",
+                "flow", "ops", "ops/s", "p50 ms", "p99 ms", "max ms", "errors", "busy");
+        for (Flow flow : Flow.values()) {
+            FlowStats flowStats = stats[flow.ordinal()];
+            LatencyHistogram latency = flowStats.latency;
+            System.out.printf("%-14s %10d %10.1f %10.2f %10.2f %10.2f %8d %8d%n",
+                    flow.name().toLowerCase(), latency.getCount(), latency.getCount() / (double) seconds,
+                    latency.getPercentileMicros(50) / 1000.0, latency.getPercentileMicros(99) / 1000.0,
+                    latency.getMaxMicros() / 1000.0, flowStats.errors.get(), flowStats.busy.get());
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    //0 once the report is printed, 1 if the load test failed and 2 for bad arguments
+    static int run(String[] args) {
+        String databaseFile = "course_reviews.db";
+        int accounts = 1000, clients = 100, searchPercent = 50, viewPercent = 35;
+        long seconds = 30, thinkMillis = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--db" -> databaseFile = args[++i];
+                    case "--accounts" -> accounts = Integer.parseInt(args[++i]);
+                    case "--clients" -> clients = Integer.parseInt(args[++i]);
+                    case "--seconds" -> seconds = Long.parseLong(args[++i]);
+                    case "--think-ms" -> thinkMillis = Long.parseLong(args[++i]);
+                    case "--search-percent" -> searchPercent = Integer.parseInt(args[++i]);
+                    case "--view-percent" -> viewPercent = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+            }
+            if (searchPercent + viewPercent > 100) {
+                throw new IllegalArgumentException("The search and view percentages add up to more than 100");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("usage: LoadTest [--db <sqlite file>] [--accounts N] [--clients N] [--seconds N] " +
+                    "[--think-ms N] [--search-percent N] [--view-percent N]");
+            return 2;
+        }
+
+        Database database = new Database(databaseFile);
+        try {
+            database.connect();
+            database.createTables();
+            database.getMetrics().registerMBeans(databaseFile);
+            LoadTest test = new LoadTest(database, accounts, searchPercent, viewPercent, thinkMillis);
+            System.out.printf("Running %d clients for %d s against %s%n", clients, seconds, databaseFile);
+            test.run(clients, seconds);
+            test.printReport(seconds);
+        } catch (Exception e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            try {
+                database.disconnect();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return 0;
+    }
+}
@@ -1,15 +1,11 @@
 package edu.virginia.sde.reviews;
 
 import java.io.IOException;
-import java.sql.SQLException;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.stage.Stage;
 
-public class LoginScreenController {
+public class LoginScreenController implements ScreenController {
 
     @FXML
     private TextField usernameField;
@@ -23,18 +19,37 @@ public class LoginScreenController {
     @FXML
     private Button logoutButton;
 
-    private final Database db;
+    @FXML
+    private Button loginButton;
+
+    @FXML
+    private Button createAccountButton;
+
+    private final AsyncDatabase db;
+    private final ScreenRequests requests = new ScreenRequests();
 
     public LoginScreenController() {
-        this.db = CourseReviewsApplication.getDatabase();
+        this.db = CourseReviewsApplication.getAsyncDatabase();
     }
 
-    @FXML
-    public void initialize() {
-        String databaseError = CourseReviewsApplication.getDatabaseError();
-        if (databaseError != null) {
-            errorMessage.setText(databaseError);
-        }
+    // Shown at startup and again after logging out, so each visit starts with empty fields
+    @Override
+    public void onShow(Object context) {
+        usernameField.clear();
+        passwordField.clear();
+
+        // The screen comes up while the database is still opening; logging in waits until it's ready
+        setBusy(true);
+        errorMessage.setText("Starting up...");
+        requests.run(CourseReviewsApplication.getStartup().databaseReady(), ready -> {
+            setBusy(false);
+            errorMessage.setText("");
+        }, e -> errorMessage.setText("Failed to initialize the database: " + e.getMessage()));
+    }
+
+    @Override
+    public void onHide() {
+        requests.cancelAll();
     }
 
     @FXML
@@ -52,8 +67,11 @@ public class LoginScreenController {
             return;
         }
 
-        try {
-            if (db.validateUser(username, password)) {
+        setBusy(true);
+        errorMessage.setText("Logging in...");
+        requests.run(db.submit(database -> database.validateUser(username, password)), valid -> {
+            setBusy(false);
+            if (valid) {
                 // Create User object and set in UserSession
                 User user = new User(username, password);
                 UserSession.getInstance().setUser(user);
@@ -63,9 +81,10 @@ public class LoginScreenController {
             } else {
                 errorMessage.setText("Username and password combination is incorrect.");
             }
-        } catch (SQLException e) {
+        }, e -> {
+            setBusy(false);
             errorMessage.setText("An error occurred. Please try again.");
-        }
+        });
     }
 
     @FXML
@@ -83,8 +102,16 @@ public class LoginScreenController {
             return;
         }
 
-        try {
-            if (db.createUser(username, password)) {
+        if (db == null) {
+            errorMessage.setText("Database is not available. Please contact support.");
+            return;
+        }
+
+        setBusy(true);
+        errorMessage.setText("Creating account...");
+        requests.run(db.submit(database -> database.createUser(username, password)), created -> {
+            setBusy(false);
+            if (created) {
                 // Create User object and set in UserSession
                 User user = new User(username, password);
                 UserSession.getInstance().setUser(user);
@@ -92,9 +119,15 @@ public class LoginScreenController {
             } else {
                 errorMessage.setText("Account already exists.");
             }
-        } catch (SQLException e) {
+        }, e -> {
+            setBusy(false);
             errorMessage.setText("Error creating account.");
-        }
+        });
+    }
+
+    private void setBusy(boolean busy) {
+        loginButton.setDisable(busy);
+        createAccountButton.setDisable(busy);
     }
 
     @FXML
@@ -104,13 +137,7 @@ public class LoginScreenController {
 
     public void navigateToCourseSearch() {
         try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("course-search-screen.fxml"));
-            Scene scene = new Scene(fxmlLoader.load(), 1280, 720);
-
-            Stage stage = (Stage) usernameField.getScene().getWindow();
-            stage.setTitle("Course Reviews - Search Courses");
-            stage.setScene(scene);
-            stage.show();
+            CourseReviewsApplication.getNavigator().show(Navigator.Screen.COURSE_SEARCH);
         } catch (IOException e) {
             errorMessage.setText("Failed to load course search screen. Please try again.");
         }
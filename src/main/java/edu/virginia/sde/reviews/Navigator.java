@@ -0,0 +1,132 @@
+package edu.virginia.sde.reviews;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Switches the window between screens. Each screen's FXML is parsed and its controller created only once;
+ * after that the loaded root is kept and swapped into the one Scene the window always shows, so moving
+ * between screens costs no parsing, reflection or new Scene. Screens refresh their data in
+ * {@link ScreenController#onShow}. Must only be used from the FX thread.
+ */
+public class Navigator {
+
+    public enum Screen {
+        LOGIN("login-screen.fxml", "Course Reviews - Login"),
+        COURSE_SEARCH("course-search-screen.fxml", "Course Reviews - Search Courses"),
+        COURSE_REVIEWS("course-review-screen.fxml", "Course Reviews - Reviews"),
+        MY_REVIEWS("my-reviews-screen.fxml", "Course Reviews - My Reviews");
+
+        private final String fxml;
+        private final String title;
+
+        Screen(String fxml, String title) {
+            this.fxml = fxml;
+            this.title = title;
+        }
+    }
+
+    private record LoadedScreen(Parent root, ScreenController controller) {}
+
+    private static final double WIDTH = 1280, HEIGHT = 720;
+
+    private final Stage stage;
+    private final Map<Screen, LoadedScreen> loaded = new EnumMap<>(Screen.class);
+    private Scene scene;
+    private LoadedScreen current;
+
+    public Navigator(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Shows a screen, loading it first if this is its first visit, and passes it the given context.
+     *
+     * @throws IOException if the screen's FXML can't be loaded
+     */
+    public void show(Screen screen, Object context) throws IOException {
+        LoadedScreen next = load(screen);
+        if (current != null && current != next) {
+            current.controller().onHide();
+        }
+        if (scene == null) {
+            scene = new Scene(next.root(), WIDTH, HEIGHT);
+            stage.setScene(scene);
+        } else if (scene.getRoot() != next.root()) {
+            scene.setRoot(next.root());
+        }
+        current = next;
+        stage.setTitle(screen.title);
+        stage.show();
+        next.controller().onShow(context);
+    }
+
+    public void show(Screen screen) throws IOException {
+        show(screen, null);
+    }
+
+    /**
+     * Loads every screen not visited yet, so even the first visit to each is only a root swap. The FXML is
+     * parsed on the given executor; each screen is then finished on the FX thread by applying its stylesheets
+     * in an off-screen scene, which also creates its controls' skins. A screen shown before its preload
+     * finishes is loaded then as usual, and the preloaded copy is dropped.
+     *
+     * @return completes once every screen is loaded, or fails if any couldn't be; those are retried on first visit
+     */
+    public CompletableFuture<Void> preloadAll(Executor executor) {
+        List<CompletableFuture<Void>> preloads = new ArrayList<>();
+        for (Screen screen : Screen.values()) {
+            if (loaded.containsKey(screen)) {
+                continue;
+            }
+            preloads.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return parse(screen);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor).thenAcceptAsync(screenView -> {
+                if (loaded.putIfAbsent(screen, screenView) == null) {
+                    applyStyles(screenView.root());
+                }
+            }, Platform::runLater));
+        }
+        return CompletableFuture.allOf(preloads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private LoadedScreen load(Screen screen) throws IOException {
+        LoadedScreen screenView = loaded.get(screen);
+        if (screenView == null) {
+            screenView = parse(screen);
+            loaded.put(screen, screenView);
+        }
+        return screenView;
+    }
+
+    //safe off the FX thread, since the new nodes aren't part of any shown scene yet
+    private LoadedScreen parse(Screen screen) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(screen.fxml));
+        Parent root = loader.load();
+        return new LoadedScreen(root, loader.getController());
+    }
+
+    private static void applyStyles(Parent root) {
+        Scene offscreen = new Scene(root);
+        root.applyCss();
+        //a root can only belong to one scene, so free it for the window's scene
+        offscreen.setRoot(new Group());
+    }
+}
@@ -0,0 +1,72 @@
+package edu.virginia.sde.reviews;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the calls to one Database method along with their latency, the rows they returned and how many
+ * failed. Recording takes no locks, so every thread calling the database can share one timer.
+ */
+public class OperationTimer implements OperationTimerMBean {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    OperationTimer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void record(long nanos, long rowCount) {
+        latency.record(nanos);
+        totalNanos.add(nanos);
+        rows.add(rowCount);
+    }
+
+    void recordError(long nanos) {
+        latency.record(nanos);
+        totalNanos.add(nanos);
+        errors.increment();
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = latency.getCount();
+        return count == 0 ? 0 : totalNanos.sum() / (count * 1e6);
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latency.getPercentileMicros(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latency.getPercentileMicros(99) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latency.getMaxMicros() / 1000.0;
+    }
+}
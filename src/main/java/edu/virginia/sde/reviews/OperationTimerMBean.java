@@ -0,0 +1,22 @@
+package edu.virginia.sde.reviews;
+
+/**
+ * The JMX view of one Database method's timings. Latencies are in milliseconds and cover the whole call,
+ * including any wait for a connection.
+ */
+public interface OperationTimerMBean {
+
+    long getCount();
+
+    long getErrorCount();
+
+    long getRowCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,34 @@
+package edu.virginia.sde.reviews;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query. The next cursor is an opaque continuation token: pass it back to the
+ * same query to fetch the rows that come after this page. It is null once the last page has been returned.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(List.of(), null);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.virginia.sde.reviews;
+
+import java.util.*;
+
+/**
+ * A sorted array of distinct keys for prefix completion. The keys starting with a prefix sit next to each other
+ * in sorted order, so a lookup is one binary search for the first of them followed by a short scan, with no
+ * allocation beyond the returned list. Keys are stored and matched in upper case. Immutable.
+ */
+public class PrefixIndex {
+
+    private final String[] keys;
+
+    public PrefixIndex(Collection<String> keys) {
+        TreeSet<String> distinct = new TreeSet<>();
+        for (String key : keys) {
+            distinct.add(key.toUpperCase());
+        }
+        this.keys = distinct.toArray(new String[0]);
+    }
+
+    //returns up to limit keys starting with the prefix, ignoring case, in sorted order
+    public List<String> complete(String prefix, int limit) {
+        String upper = prefix.toUpperCase();
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = firstAtLeast(upper); i < keys.length && matches.size() < limit; i++) {
+            if (!keys[i].startsWith(upper)) {
+                break;
+            }
+            matches.add(keys[i]);
+        }
+        return matches;
+    }
+
+    private int firstAtLeast(String key) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,12 @@
+package edu.virginia.sde.reviews;
+
+public record RatedCourse(Course course, int reviewCount, double averageRating) {
+
+    public boolean hasReviews() {
+        return reviewCount > 0;
+    }
+
+    public String formatRating() {
+        return hasReviews() ? String.format("%.1f", averageRating) : "No reviews";
+    }
+}
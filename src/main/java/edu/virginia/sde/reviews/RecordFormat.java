@@ -0,0 +1,14 @@
+package edu.virginia.sde.reviews;
+
+import java.util.Locale;
+
+//the file formats the catalog importer and the review exporter read and write
+public enum RecordFormat {
+    CSV, NDJSON;
+
+    //guesses the format from a file extension: .ndjson and .jsonl are NDJSON, anything else is CSV
+    public static RecordFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".ndjson") || lower.endsWith(".jsonl") ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,141 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of each course's full review list, so going back to a course that was viewed recently
+ * doesn't query SQLite again. Entries are weighted by roughly how much heap their reviews take, which is
+ * dominated by the comment text, and the least recently used lists are evicted once the total weight passes
+ * the limit. A list heavier than the whole limit is returned but never cached.
+ *
+ * The cache listens to the Database and drops a course's list whenever a commit changes its reviews.
+ */
+public class ReviewCache {
+
+    public static final long DEFAULT_MAX_WEIGHT_BYTES = 8L * 1024 * 1024;
+
+    //rough heap cost of a Review and its fixed fields, not counting the comment
+    private static final int REVIEW_OVERHEAD_BYTES = 96;
+
+    private record Entry(List<Review> reviews, long weight) {}
+
+    private final Database database;
+    private final long maxWeight;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits, misses, evictions;
+    //bumped on every invalidation, so a list read before an invalidation is never cached after it
+    private long generation;
+
+    public ReviewCache(Database database) {
+        this(database, DEFAULT_MAX_WEIGHT_BYTES);
+    }
+
+    public ReviewCache(Database database, long maxWeightBytes) {
+        this.database = database;
+        this.maxWeight = maxWeightBytes;
+        database.addReviewChangeListener(this::invalidate);
+    }
+
+    /**
+     * Returns every review of the course, oldest first, reading them from the database only on a miss.
+     * The returned list is unmodifiable.
+     */
+    public List<Review> getReviews(Course course) throws SQLException {
+        int courseID = course.getCourseID();
+        long seenGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(courseID);
+            if (entry != null) {
+                hits++;
+                return entry.reviews();
+            }
+            misses++;
+            seenGeneration = generation;
+        }
+
+        //query outside the lock so a slow load doesn't hold up hits on other courses
+        List<Review> reviews = List.copyOf(database.getReviewsByCourse(course));
+        synchronized (this) {
+            if (generation == seenGeneration) {
+                put(courseID, reviews);
+            }
+        }
+        return reviews;
+    }
+
+    public synchronized void invalidate(int courseID) {
+        generation++;
+        Entry removed = entries.remove(courseID);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void put(int courseID, List<Review> reviews) {
+        long entryWeight = weigh(reviews);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        Entry previous = entries.put(courseID, new Entry(reviews, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += entryWeight;
+
+        //access order puts the least recently used entry first
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            weight -= evicted.weight();
+            evictions++;
+        }
+    }
+
+    private static long weigh(List<Review> reviews) {
+        long bytes = 0;
+        for (Review review : reviews) {
+            bytes += REVIEW_OVERHEAD_BYTES;
+            if (review.getComment() != null) {
+                //two bytes per char is the worst case for a Java string
+                bytes += 2L * review.getComment().length();
+            }
+        }
+        return bytes;
+    }
+}
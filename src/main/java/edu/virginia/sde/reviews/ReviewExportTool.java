@@ -0,0 +1,99 @@
+package edu.virginia.sde.reviews;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line entry point for dumping reviews or course stats:
+ *
+ *     ./gradlew exportReviews --args="reviews reviews.ndjson [--db course_reviews.db] [--format csv|ndjson]"
+ *     ./gradlew exportReviews --args="stats stats.csv"
+ *
+ * Passing - as the file writes to standard output. The export reads a consistent snapshot, so it can run
+ * while the app is open. It never migrates the database; a file at another schema version is refused.
+ */
+public class ReviewExportTool {
+
+    private static final String USAGE =
+            "usage: ReviewExportTool reviews|stats <file or -> [--db <sqlite file>] [--format csv|ndjson]";
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    //returns the exit status, so the JVM only exits once the finally block has closed the database:
+    //0 on success, 1 if the export failed and 2 for bad arguments
+    static int run(String[] args) {
+        String what = null, file = null;
+        String databaseFile = "course_reviews.db";
+        RecordFormat format = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--db" -> databaseFile = args[++i];
+                    case "--format" -> format = RecordFormat.valueOf(args[++i].toUpperCase());
+                    default -> {
+                        if (what == null) {
+                            what = args[i];
+                        } else if (file == null) {
+                            file = args[i];
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                    }
+                }
+            }
+            if (file == null || !(what.equals("reviews") || what.equals("stats"))) {
+                throw new IllegalArgumentException("Expected what to export and where");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        boolean toStdout = file.equals("-");
+        if (format == null) {
+            format = toStdout ? RecordFormat.NDJSON : RecordFormat.fromFileName(file);
+        }
+
+        //connecting would create a missing file, and migrating would rewrite an old one; an export does neither
+        if (!Files.isRegularFile(Path.of(databaseFile))) {
+            System.err.println("Export failed: no database at " + databaseFile);
+            return 1;
+        }
+        Database database = new Database(databaseFile, 1);
+        try {
+            database.connect();
+            database.requireLatestSchema();
+            ReviewExporter exporter = new ReviewExporter(database);
+            long start = System.nanoTime();
+            long rows;
+            if (toStdout) {
+                rows = export(exporter, what, System.out, format);
+            } else {
+                try (OutputStream out = Files.newOutputStream(Path.of(file))) {
+                    rows = export(exporter, what, out, format);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Exported %d rows in %.2f s (%.0f rows/s)%n", rows, seconds, rows / Math.max(seconds, 1e-9));
+        } catch (Exception e) {
+            System.err.println("Export failed: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            try {
+                database.disconnect();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        return 0;
+    }
+
+    private static long export(ReviewExporter exporter, String what, OutputStream out, RecordFormat format)
+            throws Exception {
+        return what.equals("reviews") ? exporter.exportReviews(out, format) : exporter.exportCourseStats(out, format);
+    }
+}
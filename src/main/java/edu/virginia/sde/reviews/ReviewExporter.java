@@ -0,0 +1,120 @@
+package edu.virginia.sde.reviews;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Writes every review, or every course's review stats, to a stream as CSV or NDJSON. Rows go straight from
+ * the database cursor to a buffered writer, so memory use stays the same however many reviews there are.
+ * The stream is flushed but not closed.
+ */
+public class ReviewExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Database database;
+
+    public ReviewExporter(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * @return the number of reviews written
+     */
+    public long exportReviews(OutputStream out, RecordFormat format) throws IOException, SQLException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == RecordFormat.CSV) {
+            writer.write("reviewID,courseID,subject,number,title,author,rating,comment,timestamp\n");
+        }
+        long rows = database.streamReviews(row -> {
+            Review review = row.review();
+            Course course = row.course();
+            if (format == RecordFormat.CSV) {
+                writer.write(review.getReviewID() + "," + course.getCourseID() + "," + csv(course.getMnemonic()) + "," +
+                        course.getNumber() + "," + csv(course.getTitle()) + "," + csv(review.getAuthorUsername()) + "," +
+                        review.getRating() + "," + csv(review.getComment()) + "," + csv(review.getTimestamp()) + "\n");
+            } else {
+                writer.write("{\"reviewID\":" + review.getReviewID() +
+                        ",\"courseID\":" + course.getCourseID() +
+                        ",\"subject\":" + json(course.getMnemonic()) +
+                        ",\"number\":" + course.getNumber() +
+                        ",\"title\":" + json(course.getTitle()) +
+                        ",\"author\":" + json(review.getAuthorUsername()) +
+                        ",\"rating\":" + review.getRating() +
+                        ",\"comment\":" + json(review.getComment()) +
+                        ",\"timestamp\":" + json(review.getTimestamp()) + "}\n");
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * @return the number of courses written
+     */
+    public long exportCourseStats(OutputStream out, RecordFormat format) throws IOException, SQLException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == RecordFormat.CSV) {
+            writer.write("courseID,subject,number,title,reviewCount,averageRating\n");
+        }
+        long rows = database.streamCourseStats(row -> {
+            Course course = row.course();
+            String average = row.hasReviews() ? String.format(Locale.ROOT, "%.4f", row.averageRating()) : "";
+            if (format == RecordFormat.CSV) {
+                writer.write(course.getCourseID() + "," + csv(course.getMnemonic()) + "," + course.getNumber() + "," +
+                        csv(course.getTitle()) + "," + row.reviewCount() + "," + average + "\n");
+            } else {
+                writer.write("{\"courseID\":" + course.getCourseID() +
+                        ",\"subject\":" + json(course.getMnemonic()) +
+                        ",\"number\":" + course.getNumber() +
+                        ",\"title\":" + json(course.getTitle()) +
+                        ",\"reviewCount\":" + row.reviewCount() +
+                        ",\"averageRating\":" + (average.isEmpty() ? "null" : average) + "}\n");
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    //quotes a CSV field when it holds a comma, quote or line break
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
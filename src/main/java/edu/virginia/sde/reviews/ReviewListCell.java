@@ -0,0 +1,42 @@
+package edu.virginia.sde.reviews;
+
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.VBox;
+
+/**
+ * One row of a course's review list. A ListView only creates enough cells to fill its viewport and hands
+ * them new reviews as it scrolls, so each cell builds its labels once and afterwards only changes their text.
+ */
+public class ReviewListCell extends ListCell<Review> {
+
+    private final VBox reviewBox = new VBox(5);
+    private final Label ratingLabel = new Label();
+    private final Label timestampLabel = new Label();
+    private final Label commentLabel = new Label();
+
+    public ReviewListCell() {
+        reviewBox.setStyle("-fx-border-color: lightgray; -fx-padding: 10; -fx-border-radius: 5;");
+        commentLabel.setWrapText(true);
+        //hidden comments take up no space
+        commentLabel.managedProperty().bind(commentLabel.visibleProperty());
+        reviewBox.getChildren().addAll(ratingLabel, timestampLabel, commentLabel);
+        //size to the list rather than to the longest comment, so comments wrap instead of scrolling sideways
+        setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(Review review, boolean empty) {
+        super.updateItem(review, empty);
+        if (empty || review == null) {
+            setGraphic(null);
+            return;
+        }
+        ratingLabel.setText(String.format("Rating: %.1f", review.getRating()));
+        timestampLabel.setText("Posted: " + review.getTimestamp());
+        boolean hasComment = review.getComment() != null && !review.getComment().isEmpty();
+        commentLabel.setText(hasComment ? "Comment: " + review.getComment() : "");
+        commentLabel.setVisible(hasComment);
+        setGraphic(reviewBox);
+    }
+}
@@ -0,0 +1,4 @@
+package edu.virginia.sde.reviews;
+
+//a review together with the course it was written for, as read by a single join
+public record ReviewWithCourse(Review review, Course course) {}
@@ -0,0 +1,20 @@
+package edu.virginia.sde.reviews;
+
+/**
+ * A pending change to the Reviews table: either an upsert of a review, or the deletion of the review an author
+ * wrote for a course (in which case review is null).
+ */
+public record ReviewWrite(Review review, int courseID, String authorUsername) {
+
+    public static ReviewWrite upsert(Review review) {
+        return new ReviewWrite(review, review.getCourseID(), review.getAuthorUsername());
+    }
+
+    public static ReviewWrite delete(int courseID, String authorUsername) {
+        return new ReviewWrite(null, courseID, authorUsername);
+    }
+
+    public boolean isDelete() {
+        return review == null;
+    }
+}
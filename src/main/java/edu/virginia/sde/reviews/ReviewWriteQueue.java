@@ -0,0 +1,142 @@
+package edu.virginia.sde.reviews;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for review submissions and deletions. Instead of committing every write on its own, a
+ * background thread gathers the writes that arrive within a short window (or until the batch is full) and
+ * commits them together, so a burst of submissions costs one fsync per batch instead of one per review.
+ * Each caller gets a future that completes once the batch holding its write has been committed.
+ */
+public class ReviewWriteQueue {
+
+    public static final long DEFAULT_WINDOW_MILLIS = 10;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private record PendingWrite(ReviewWrite write, CompletableFuture<Void> result) {}
+
+    private final Database database;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    //held while checking running and adding to the queue, so no write can be queued once shutdown has begun
+    private final Object accepting = new Object();
+    private volatile boolean running = true;
+
+    public ReviewWriteQueue(Database database) {
+        this(database, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public ReviewWriteQueue(Database database, long windowMillis, int maxBatchSize) {
+        this.database = database;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = new Thread(this::flushLoop, "review-writes");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public CompletableFuture<Void> upsert(Review review) {
+        return enqueue(ReviewWrite.upsert(review));
+    }
+
+    public CompletableFuture<Void> delete(int courseID, String authorUsername) {
+        return enqueue(ReviewWrite.delete(courseID, authorUsername));
+    }
+
+    private CompletableFuture<Void> enqueue(ReviewWrite write) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        synchronized (accepting) {
+            if (!running) {
+                throw new IllegalStateException("The review write queue has been shut down");
+            }
+            queue.add(new PendingWrite(write, result));
+        }
+        return result;
+    }
+
+    /**
+     * Stops accepting writes, then waits for everything already queued to be committed.
+     */
+    public void shutdown() throws InterruptedException {
+        stopAccepting();
+        flusher.join();
+        //the flusher only stops once the queue is empty and nothing can be queued after stopAccepting, so
+        //anything left here was stranded by a flusher that died of an unexpected error; fail it rather than hang
+        PendingWrite late;
+        while ((late = queue.poll()) != null) {
+            late.result().completeExceptionally(
+                    new IllegalStateException("The review write queue has been shut down"));
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                stopAccepting();
+                flush(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void stopAccepting() {
+        synchronized (accepting) {
+            running = false;
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<ReviewWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            writes.add(pending.write());
+        }
+        try {
+            database.applyReviewWrites(writes);
+            for (PendingWrite pending : batch) {
+                pending.result().complete(null);
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            //the whole batch was rolled back; retry each write on its own so one bad write can't fail the rest
+            for (PendingWrite pending : batch) {
+                try {
+                    database.applyReviewWrites(List.of(pending.write()));
+                    pending.result().complete(null);
+                } catch (SQLException | RuntimeException retryError) {
+                    pending.result().completeExceptionally(retryError);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.virginia.sde.reviews;
+
+/**
+ * A controller whose screen the Navigator keeps loaded between visits. The FXML is loaded and initialize()
+ * runs once, so one-time setup such as cell factories belongs there, and anything that depends on who is
+ * logged in or what was picked on the previous screen belongs in onShow.
+ */
+public interface ScreenController {
+
+    /**
+     * Called each time the screen is shown, after it has become the window's content.
+     *
+     * @param context whatever the previous screen passed along, such as the Course to show reviews for, or null
+     */
+    void onShow(Object context);
+
+    //called when another screen replaces this one; the place to cancel requests still running for it
+    default void onHide() {
+    }
+}
@@ -0,0 +1,50 @@
+package edu.virginia.sde.reviews;
+
+import javafx.application.Platform;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the background requests a screen has in flight and delivers their results on the FX thread.
+ * Cancelling a request, or all of them when the user navigates away, guarantees its callbacks never run,
+ * so a slow response can't overwrite a newer one or touch a screen that is no longer shown.
+ * Must only be used from the FX thread.
+ */
+public class ScreenRequests {
+
+    private final Set<CompletableFuture<?>> pending = new HashSet<>();
+
+    public <T> CompletableFuture<T> run(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        pending.add(future);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (!pending.remove(future)) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                onError.accept(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            }
+        }));
+        return future;
+    }
+
+    public void cancel(CompletableFuture<?> future) {
+        if (future != null && pending.remove(future)) {
+            future.cancel(false);
+        }
+    }
+
+    public void cancelAll() {
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+    }
+}
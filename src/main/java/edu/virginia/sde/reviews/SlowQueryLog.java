@@ -0,0 +1,83 @@
+package edu.virginia.sde.reviews;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Logs Database calls that take longer than a threshold, with each statement the call ran: its SQL, the
+ * types of the parameters bound to it, and the plan SQLite picks for it from EXPLAIN QUERY PLAN. A plan line
+ * reading "SCAN Courses" rather than "SEARCH Courses USING INDEX ..." is a full table scan.
+ *
+ * The threshold is read from the reviews.slowQueryMillis system property and defaults to 100 ms; a threshold
+ * of 0 or less turns the log off. Entries are written at WARN level to the SlowQueryLog logger.
+ */
+class SlowQueryLog {
+
+    static final String THRESHOLD_PROPERTY = "reviews.slowQueryMillis";
+    private static final long DEFAULT_THRESHOLD_MILLIS = 100;
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdNanos;
+
+    SlowQueryLog() {
+        this(Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS));
+    }
+
+    SlowQueryLog(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+    }
+
+    boolean isSlow(long nanos) {
+        return thresholdNanos > 0 && nanos >= thresholdNanos && log.isWarnEnabled();
+    }
+
+    /**
+     * Logs the call if it was slow. Must be called on the connection the call ran on, before anyone else
+     * uses it, since that is where the statements it ran are looked up and explained.
+     */
+    void check(String operation, long nanos, CachedConnection connection) {
+        if (isSlow(nanos)) {
+            log(operation, nanos, connection.getStatementUses(), connection);
+        }
+    }
+
+    /**
+     * Logs a slow call with the statements it ran. EXPLAIN QUERY PLAN only needs the schema, so the plans can
+     * come from another connection than the one the call ran on; with a null connection they are left out.
+     */
+    void log(String operation, long nanos, List<CachedConnection.StatementUse> uses, CachedConnection explainOn) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(String.format("Slow database call: %s took %.1f ms", operation, nanos / 1e6));
+        for (CachedConnection.StatementUse use : uses) {
+            entry.append("\n  SQL: ").append(use.sql());
+            entry.append("\n  parameters: ").append(use.parameterTypes());
+            entry.append("\n  plan:");
+            entry.append(explainOn == null ? " unavailable (no free connection)" : explain(explainOn, use.sql()));
+        }
+        log.warn(entry.toString());
+    }
+
+    //EXPLAIN QUERY PLAN rows form a tree through their parent ids; each is printed indented under its parent
+    private static String explain(CachedConnection connection, String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.getConnection().prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = statement.executeQuery()) {
+            Map<Integer, Integer> depths = new HashMap<>();
+            while (rs.next()) {
+                int depth = depths.getOrDefault(rs.getInt("parent"), 0) + 1;
+                depths.put(rs.getInt("id"), depth);
+                plan.append("\n  ").append("  ".repeat(depth)).append(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            plan.append(" unavailable (").append(e.getMessage()).append(")");
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package edu.virginia.sde.reviews;
+
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.util.function.Consumer;
+
+/**
+ * One row of the My Reviews list: the course, the rating and date, and the comment. Like ReviewListCell it
+ * builds its nodes once and is reused as the list scrolls. Clicking a row opens its course, and showing the
+ * last row lets the screen fetch the next page.
+ */
+public class UserReviewListCell extends ListCell<ReviewWithCourse> {
+
+    private final VBox reviewBox = new VBox(5);
+    private final Label courseLabel = new Label();
+    private final Label ratingLabel = new Label();
+    private final Label timestampLabel = new Label();
+    private final Label commentLabel = new Label();
+    private final Runnable onLastRowShown;
+
+    public UserReviewListCell(Consumer<Course> onOpenCourse, Runnable onLastRowShown) {
+        this.onLastRowShown = onLastRowShown;
+        reviewBox.setStyle(
+            "-fx-border-color: lightgray; " +
+            "-fx-padding: 10; " +
+            "-fx-border-radius: 5; " +
+            "-fx-cursor: hand;"
+        );
+        courseLabel.setStyle("-fx-font-weight: bold;");
+        timestampLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: gray;");
+        commentLabel.setWrapText(true);
+        commentLabel.managedProperty().bind(commentLabel.visibleProperty());
+        reviewBox.getChildren().addAll(courseLabel, new HBox(5, ratingLabel, timestampLabel), commentLabel);
+        setPrefWidth(0);
+
+        setOnMouseClicked(e -> {
+            if (!isEmpty() && getItem() != null) {
+                onOpenCourse.accept(getItem().course());
+            }
+        });
+    }
+
+    @Override
+    protected void updateItem(ReviewWithCourse item, boolean empty) {
+        super.updateItem(item, empty);
+        if (empty || item == null) {
+            setGraphic(null);
+            return;
+        }
+        Review review = item.review();
+        Course course = item.course();
+        courseLabel.setText(String.format("%s %d: %s", course.getMnemonic(), course.getNumber(), course.getTitle()));
+        ratingLabel.setText(String.format("Rating: %.1f", review.getRating()));
+        timestampLabel.setText("Posted: " + review.getTimestamp());
+        boolean hasComment = review.getComment() != null && !review.getComment().isEmpty();
+        commentLabel.setText(hasComment ? review.getComment() : "");
+        commentLabel.setVisible(hasComment);
+        setGraphic(reviewBox);
+
+        if (getIndex() == getListView().getItems().size() - 1) {
+            onLastRowShown.run();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    private Database database;
+    private CourseCatalog catalog;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        database = new Database(directory.resolve("catalog.db").toString());
+        database.connect();
+        database.createTables();
+        database.createCourse("CS", 2100, "Data Structures");
+        catalog = new CourseCatalog(database);
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        database.disconnect();
+    }
+
+    @Test
+    void addedCoursesShowUpInEveryLookup() throws SQLException {
+        assertEquals(1, catalog.getAllCourses().size());
+
+        Course added = catalog.addCourse("MATH", 3100, "Probability");
+
+        assertSame(added, catalog.getCourse(added.getCourseID()));
+        assertEquals(List.of(added), catalog.getCoursesBySubject("math"));
+        assertEquals(List.of(added), catalog.getCourses("MATH", 3100));
+        assertEquals(List.of("MATH 3100"), catalog.complete("math 3", 10));
+        assertEquals(added, catalog.fuzzySearchPage("probablity", 10).getItems().get(0).course());
+        assertNull(catalog.addCourse("MATH", 3100, "Probability"));
+    }
+
+    @Test
+    void addingBeforeTheFirstLoadIsReadByIt() throws SQLException {
+        Course added = catalog.addCourse("MATH", 3100, "Probability");
+        assertEquals(2, catalog.getAllCourses().size());
+        assertEquals("Probability", catalog.getCourse(added.getCourseID()).getTitle());
+    }
+
+    @Test
+    void concurrentAddsAreAllKept() throws Exception {
+        catalog.getAllCourses();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Course>> adds = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                int number = 1000 + i;
+                adds.add(pool.submit(() -> catalog.addCourse("ECE", number, "Course " + number)));
+            }
+            for (Future<Course> add : adds) {
+                assertNotNull(add.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(40, catalog.getCoursesBySubject("ECE").size());
+        assertEquals(database.getAllCourses().size(), catalog.getAllCourses().size());
+    }
+
+    @Test
+    void versionMovesWithEveryChange() throws SQLException {
+        database.createUser("alice", "pw");
+        Course course = database.getAllCourses().get(0);
+
+        long before = catalog.getVersion();
+        database.addReviews(List.of(new Review(0, course.getCourseID(), "alice", 4, "")));
+        assertTrue(catalog.isStale(before), "review commits count even before the first load");
+
+        long loaded = catalog.getVersion();
+        catalog.getAllCourses();
+        assertTrue(catalog.isStale(loaded));
+
+        long current = catalog.getVersion();
+        assertFalse(catalog.isStale(current));
+        catalog.addCourse("MATH", 3100, "Probability");
+        assertTrue(catalog.isStale(current));
+
+        current = catalog.getVersion();
+        catalog.invalidate();
+        assertTrue(catalog.isStale(current));
+    }
+}
@@ -0,0 +1,111 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseImporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvSplitsPlainFields() {
+        assertEquals(List.of("CS", "3140", "Software Development"),
+                CourseImporter.parseCsvLine("CS,3140,Software Development"));
+    }
+
+    @Test
+    void csvKeepsEmptyFields() {
+        assertEquals(List.of("", "3140", ""), CourseImporter.parseCsvLine(",3140,"));
+        assertEquals(List.of(""), CourseImporter.parseCsvLine(""));
+    }
+
+    @Test
+    void csvQuotedFieldsHoldCommasAndEscapedQuotes() {
+        assertEquals(List.of("CS", "3140", "Software, \"Essentials\""),
+                CourseImporter.parseCsvLine("CS,3140,\"Software, \"\"Essentials\"\"\""));
+        assertEquals(List.of("", "x"), CourseImporter.parseCsvLine("\"\",x"));
+    }
+
+    @Test
+    void csvRejectsMalformedQuotes() {
+        assertThrows(IllegalArgumentException.class, () -> CourseImporter.parseCsvLine("CS,\"3140"));
+        assertThrows(IllegalArgumentException.class, () -> CourseImporter.parseCsvLine("\"CS\"x,3140"));
+    }
+
+    @Test
+    void jsonReadsStringsNumbersAndLiterals() {
+        Map<String, String> object = CourseImporter.parseJsonObject(
+                "{ \"subject\": \"CS\", \"number\": 3140, \"title\": \"Data \\\"Structures\\\"\\u0021\", " +
+                        "\"active\": true, \"note\": null }");
+        assertEquals(Map.of("subject", "CS", "number", "3140", "title", "Data \"Structures\"!",
+                "active", "true", "note", ""), object);
+    }
+
+    @Test
+    void jsonAcceptsAnEmptyObject() {
+        assertEquals(Map.of(), CourseImporter.parseJsonObject("  {}  "));
+    }
+
+    @Test
+    void jsonRejectsWhatIsNotOneFlatObject() {
+        for (String line : List.of(
+                "[\"CS\"]",
+                "{\"subject\": \"CS\"",
+                "{\"subject\": \"CS\"} trailing",
+                "{\"subject\": {\"name\": \"CS\"}}",
+                "{\"subject\": CS}",
+                "{\"subject\": \"CS}",
+                "{\"subject\": \"\\q\"}",
+                "{\"subject\": \"\\u00zz\"}",
+                "{subject: \"CS\"}")) {
+            assertThrows(IllegalArgumentException.class, () -> CourseImporter.parseJsonObject(line), line);
+        }
+    }
+
+    @Test
+    void importReportsInsertedDuplicateAndRejectedRows() throws IOException, SQLException {
+        Database database = new Database(directory.resolve("import.db").toString());
+        database.connect();
+        try {
+            database.createTables();
+            String csv = """
+                    title,subject,number
+                    Software Development,cs,3140
+                    Software Development,CS,3140
+                    "Algorithms, Advanced",CS,4102
+
+                    No Number,CS,
+                    "Unterminated,CS,1000
+                    """;
+
+            CourseImporter.Report report = new CourseImporter(database, 2).importFrom(new StringReader(csv), RecordFormat.CSV);
+
+            assertEquals(5, report.rows());
+            assertEquals(2, report.inserted());
+            assertEquals(1, report.duplicates());
+            assertEquals(List.of(6L, 7L), report.rejected().stream().map(CourseImporter.Rejection::line).toList());
+            assertEquals(List.of("Algorithms, Advanced", "Software Development"),
+                    database.getAllCourses().stream().map(Course::getTitle).sorted().toList());
+        } finally {
+            database.disconnect();
+        }
+    }
+
+    @Test
+    void csvWithoutTheNeededColumnsIsRefused() {
+        Database database = new Database(directory.resolve("unused.db").toString());
+        CourseImporter importer = new CourseImporter(database);
+        assertThrows(IOException.class,
+                () -> importer.importFrom(new StringReader("subject,title\nCS,Algorithms\n"), RecordFormat.CSV));
+    }
+}
@@ -0,0 +1,105 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseRankerTest {
+
+    private static RatedCourse unrated(int courseID, String subject, int number, String title) {
+        return new RatedCourse(new Course(courseID, title, subject, number), 0, 0);
+    }
+
+    private static List<Integer> ids(List<RatedCourse> ranked) {
+        return ranked.stream().map(rated -> rated.course().getCourseID()).toList();
+    }
+
+    @Test
+    void scoresEachFilledInField() {
+        RatedCourse course = unrated(1, "CS", 3140, "Software Development Essentials");
+        assertEquals(0.0, new CourseRanker("", "", "", 10).score(course), 1e-9);
+        assertEquals(4.0, new CourseRanker("cs", "", "", 10).score(course), 1e-9);
+        assertEquals(0.0, new CourseRanker("C", "", "", 10).score(course), 1e-9);
+        //two of the course number's four digits
+        assertEquals(1.5, new CourseRanker("", "31", "", 10).score(course), 1e-9);
+        assertEquals(3.0, new CourseRanker("", "3140", "", 10).score(course), 1e-9);
+        assertEquals(0.0, new CourseRanker("", "14", "", 10).score(course), 1e-9);
+        //"dev" starts a word of the title and "ment" doesn't
+        assertEquals(1.5, new CourseRanker("", "", "dev ment", 10).score(course), 1e-9);
+        assertEquals(7.0, new CourseRanker("CS", "", "software, essentials!", 10).score(course), 1e-9);
+    }
+
+    @Test
+    void reviewsCountMoreTheMoreThereAre() {
+        Course course = new Course(1, "Algorithms", "CS", 4102);
+        CourseRanker ranker = new CourseRanker("", "", "", 10);
+        //ten reviews is the half way point: half the count weight, and the rating trusted by half
+        assertEquals(0.5 + 0.5 * 4.0 / 5.0, ranker.score(new RatedCourse(course, 10, 4.0)), 1e-9);
+        assertTrue(ranker.score(new RatedCourse(course, 100, 3.0)) > ranker.score(new RatedCourse(course, 2, 5.0)));
+    }
+
+    @Test
+    void keepsTheBestFewBestFirst() {
+        CourseRanker ranker = new CourseRanker("CS", "", "algorithms", 2);
+        ranker.offer(unrated(1, "MATH", 3100, "Probability"));
+        ranker.offer(unrated(2, "CS", 2100, "Data Structures and Algorithms"));
+        ranker.offer(unrated(3, "CS", 3140, "Software Development"));
+        ranker.offer(unrated(4, "APMA", 4102, "Algorithms"));
+        assertEquals(List.of(2, 3), ids(ranker.results()));
+    }
+
+    @Test
+    void equalScoresRankByCourseID() {
+        CourseRanker ranker = new CourseRanker("CS", "", "", 2);
+        ranker.offer(unrated(7, "CS", 1000, "A"));
+        ranker.offer(unrated(3, "CS", 1001, "B"));
+        ranker.offer(unrated(5, "CS", 1002, "C"));
+        assertEquals(List.of(3, 5), ids(ranker.results()));
+    }
+
+    @Test
+    void resultsEmptyTheRanker() {
+        CourseRanker ranker = new CourseRanker("CS", "", "", 5);
+        ranker.offer(unrated(1, "CS", 1000, "A"));
+        assertEquals(List.of(1), ids(ranker.results()));
+        assertEquals(List.of(), ranker.results());
+    }
+
+    @Test
+    void nonPositiveLimitKeepsNothing() {
+        CourseRanker ranker = new CourseRanker("CS", "", "", 0);
+        ranker.offer(unrated(1, "CS", 1000, "A"));
+        assertEquals(List.of(), ranker.results());
+    }
+
+    //the bounded heap has to pick the same courses as scoring everything and sorting it
+    @Test
+    void boundedHeapMatchesAFullSort() {
+        String[] subjects = {"CS", "MATH", "ECE"};
+        String[] words = {"data", "systems", "theory", "design", "analysis"};
+        Random random = new Random(1);
+        List<RatedCourse> catalog = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            Course course = new Course(i, title, subjects[random.nextInt(subjects.length)], 1000 + random.nextInt(9000));
+            int reviews = random.nextInt(4) == 0 ? 0 : random.nextInt(30);
+            catalog.add(new RatedCourse(course, reviews, reviews == 0 ? 0 : 1 + random.nextInt(5)));
+        }
+
+        for (int limit : List.of(1, 25, 3000)) {
+            CourseRanker ranker = new CourseRanker("cs", "2", "design", limit);
+            catalog.forEach(ranker::offer);
+
+            List<RatedCourse> sorted = new ArrayList<>(catalog);
+            sorted.sort(Comparator.comparingDouble(ranker::score).reversed()
+                    .thenComparing(rated -> rated.course().getCourseID()));
+            List<RatedCourse> expected = sorted.subList(0, Math.min(limit, sorted.size()));
+            assertEquals(ids(expected), ids(ranker.results()), "limit " + limit);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseTrigramIndexTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    private final CourseTrigramIndex index = new CourseTrigramIndex(List.of(
+            new Course(1, "Data Structures and Algorithms", "CS", 2100),
+            new Course(2, "Algorithms", "CS", 4102),
+            new Course(3, "Software Development Essentials", "CS", 3140),
+            new Course(4, "Introduction to Probability", "MATH", 3100),
+            new Course(5, "Probability", "APMA", 3100)));
+
+    private List<Integer> search(String query, int limit) {
+        return index.search(query, limit, NO_DEADLINE).stream().map(Course::getCourseID).toList();
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertEquals(List.of(2, 1), search("algoritms", 10));
+        assertEquals(List.of(3), search("sofware developmnt", 10));
+    }
+
+    @Test
+    void matchesSubjectsAndNumbers() {
+        assertEquals(3, search("cs 3140", 10).get(0));
+        assertEquals(List.of(4), search("math 3100", 1));
+    }
+
+    //with equal overlap the course with less other text wins, then the one listed first
+    @Test
+    void breaksTiesByLengthThenOrder() {
+        assertEquals(List.of(5, 4), search("probability", 10));
+        CourseTrigramIndex sameLength = new CourseTrigramIndex(List.of(
+                new Course(1, "Data", "CS", 1000),
+                new Course(2, "Data", "CS", 1001)));
+        assertEquals(List.of(1, 2),
+                sameLength.search("data", 10, NO_DEADLINE).stream().map(Course::getCourseID).toList());
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        assertEquals(List.of(2), search("algoritms", 1));
+        assertEquals(List.of(), search("algoritms", 0));
+    }
+
+    @Test
+    void dissimilarOrEmptyQueriesFindNothing() {
+        assertEquals(List.of(), search("zzzz", 10));
+        assertEquals(List.of(), search("", 10));
+        assertEquals(List.of(), search(" - ", 10));
+    }
+
+    //even with no time at all the rarest trigram is read, and it alone picks out the course
+    @Test
+    void spentBudgetRanksOnWhatWasRead() {
+        List<Course> found = index.search("essentials", 10, 0);
+        assertEquals(List.of(3), found.stream().map(Course::getCourseID).toList());
+    }
+}
@@ -0,0 +1,101 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseFullTextSearchTest {
+
+    @TempDir
+    Path directory;
+
+    private Database database;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        database = new Database(directory.resolve("search.db").toString());
+        database.connect();
+        database.createTables();
+        database.createCourse("CS", 2100, "Data Structures and Algorithms");
+        database.createCourse("CS", 4102, "Algorithms");
+        database.createCourse("CS", 3140, "Software Development Essentials");
+        database.createCourse("MATH", 3100, "Introduction to Probability");
+        database.createCourse("APMA", 3100, "Probability");
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        database.disconnect();
+    }
+
+    private List<String> titles(String subject, String title) throws SQLException {
+        return database.searchCoursesPage(subject, "", title, null, 0).getItems().stream()
+                .map(rated -> rated.course().getTitle()).toList();
+    }
+
+    @Test
+    void userTextBecomesQuotedPrefixTerms() {
+        assertEquals("\"data\"* \"struct\"*", Database.toFullTextQuery("data struct"));
+        assertEquals("\"C\"* \"OR\"* \"NEAR\"*", Database.toFullTextQuery("C++ OR NEAR("));
+        assertNull(Database.toFullTextQuery(" -*\" "));
+    }
+
+    @Test
+    void everyWordMustStartAWordOfTheTitle() throws SQLException {
+        assertEquals(List.of("Software Development Essentials"), titles("", "dev ess"));
+        assertEquals(List.of(), titles("", "dev probability"));
+        assertEquals(List.of(), titles("", "velopment"));
+    }
+
+    //bm25 ranks the shorter title, where the term weighs more, first
+    @Test
+    void bestMatchesComeFirst() throws SQLException {
+        assertEquals(List.of("Algorithms", "Data Structures and Algorithms"), titles("", "algorithms"));
+        assertEquals(List.of("Probability", "Introduction to Probability"), titles("", "prob"));
+    }
+
+    @Test
+    void filtersCombineWithTheTitleMatch() throws SQLException {
+        assertEquals(List.of("Introduction to Probability"), titles("math", "probability"));
+        Page<RatedCourse> page = database.searchCoursesPage("", "4102", "algo", null, 0);
+        assertEquals(1, page.getItems().size());
+    }
+
+    @Test
+    void queryOperatorsInTheInputAreSearchedAsWords() throws SQLException {
+        assertEquals(List.of(), titles("", "NOT OR AND"));
+        assertEquals(List.of(), titles("", "\"unbalanced"));
+        assertEquals(List.of(), titles("", "*"));
+    }
+
+    @Test
+    void newCoursesAreIndexedByTheirTrigger() throws SQLException {
+        database.createCourse("STS", 4500, "Algorithms and Society");
+        assertEquals(3, titles("", "algorithms").size());
+    }
+
+    @Test
+    void rankedPagesFollowTheCursor() throws SQLException {
+        for (int i = 0; i < 7; i++) {
+            database.createCourse("ECE", 2000 + i, "Signals " + "and Systems ".repeat(i));
+        }
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<RatedCourse> page = database.searchCoursesPage("", "", "signals", cursor, 3);
+            page.getItems().forEach(rated -> paged.add(rated.course().getTitle()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(titles("", "signals"), paged);
+        assertEquals(7, paged.size());
+    }
+}
@@ -0,0 +1,199 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseMigrationTest {
+
+    @TempDir
+    Path directory;
+
+    private Database database;
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        if (database != null) {
+            database.disconnect();
+        }
+    }
+
+    //a file as the app wrote it before the schema was versioned: the base tables only, at user_version 0
+    private Path createUnversionedFile(String... inserts) throws SQLException {
+        Path file = directory.resolve("unversioned.db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE Users (username TEXT PRIMARY KEY, password TEXT NOT NULL) STRICT");
+            statement.execute("CREATE TABLE Courses (courseID INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "title TEXT NOT NULL, courseMnemonic TEXT NOT NULL, courseNumber INTEGER NOT NULL) STRICT");
+            statement.execute("CREATE TABLE Reviews (reviewID INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "courseID INTEGER, authorUsername TEXT, " +
+                    "rating REAL NOT NULL CHECK (rating BETWEEN 1 AND 5), comment TEXT, timestamp TEXT NOT NULL, " +
+                    "FOREIGN KEY(courseID) REFERENCES Courses(courseID) ON DELETE CASCADE, " +
+                    "FOREIGN KEY(authorUsername) REFERENCES Users(username) ON DELETE CASCADE, " +
+                    "UNIQUE(courseID, authorUsername)) STRICT");
+            for (String insert : inserts) {
+                statement.execute(insert);
+            }
+        }
+        return file;
+    }
+
+    private Database open(Path file) throws SQLException {
+        database = new Database(file.toString());
+        database.connect();
+        database.createTables();
+        return database;
+    }
+
+    //runs statements on the file through a connection of its own, outside the Database under test
+    private static void executeRaw(Path file, String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static List<String> schemaObjects(Path file) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name FROM sqlite_master ORDER BY name")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    @Test
+    void newFileIsMigratedToTheLatestVersion() throws SQLException {
+        Path file = directory.resolve("new.db");
+
+        assertEquals(6, open(file).getSchemaVersion());
+        List<String> objects = schemaObjects(file);
+        for (String name : List.of("Users", "Courses", "Reviews", "CourseStats", "Reviews_stats_insert",
+                "CoursesFts", "Courses_fts_insert", "Reviews_by_author", "Courses_by_subject_number", "Courses_key")) {
+            assertTrue(objects.contains(name), name);
+        }
+        for (String name : List.of("ReviewsFts", "Reviews_fts_insert", "Reviews_fts_delete", "Reviews_fts_update")) {
+            assertFalse(objects.contains(name), name);
+        }
+    }
+
+    @Test
+    void migratingAnUpToDateFileChangesNothing() throws SQLException {
+        Path file = directory.resolve("current.db");
+        Database database = open(file);
+        database.createUser("alice", "pw");
+        Course course = database.createCourse("CS", 3140, "Software Development");
+        database.addReviews(List.of(new Review(0, course.getCourseID(), "alice", 4, "kept")));
+        List<String> objects = schemaObjects(file);
+
+        database.createTables();
+
+        assertEquals(6, database.getSchemaVersion());
+        assertEquals(objects, schemaObjects(file));
+        assertEquals("kept", database.getReviewsByCourse(course).get(0).getComment());
+    }
+
+    //each step commits with its version, so a file left part way through picks up at the next step
+    @Test
+    void migrationResumesAfterTheRecordedVersion() throws SQLException {
+        Path file = directory.resolve("partial.db");
+        open(file).disconnect();
+        executeRaw(file,
+                "DROP INDEX Courses_key",
+                "DROP INDEX Courses_by_number",
+                "PRAGMA user_version = 3");
+
+        assertEquals(6, open(file).getSchemaVersion());
+        List<String> objects = schemaObjects(file);
+        assertTrue(objects.contains("Courses_key"));
+        assertTrue(objects.contains("Courses_by_number"));
+    }
+
+    @Test
+    void fileFromANewerVersionIsRefused() throws SQLException {
+        Path file = directory.resolve("newer.db");
+        open(file).disconnect();
+        executeRaw(file, "PRAGMA user_version = 99");
+
+        database = new Database(file.toString());
+        database.connect();
+        assertThrows(IllegalStateException.class, database::createTables);
+        assertEquals(99, database.getSchemaVersion());
+    }
+
+    //read-only tools check the version instead of migrating, so an older file is refused and left as it was
+    @Test
+    void requiringTheLatestSchemaNeverMigrates() throws SQLException {
+        Path file = createUnversionedFile();
+        List<String> objects = schemaObjects(file);
+
+        database = new Database(file.toString());
+        database.connect();
+        assertThrows(IllegalStateException.class, database::requireLatestSchema);
+        assertEquals(0, database.getSchemaVersion());
+        assertEquals(objects, schemaObjects(file));
+
+        database.createTables();
+        assertDoesNotThrow(database::requireLatestSchema);
+        assertEquals(database.getLatestSchemaVersion(), database.getSchemaVersion());
+    }
+
+    @Test
+    void mergingDuplicateCoursesKeepsTheirReviews() throws SQLException {
+        Path file = createUnversionedFile(
+                "INSERT INTO Users VALUES ('alice', 'pw'), ('bob', 'pw'), ('carol', 'pw')",
+                "INSERT INTO Courses VALUES (1, 'Software Development', 'CS', 3140)",
+                "INSERT INTO Courses VALUES (2, 'Software Development', 'CS', 3140)",
+                "INSERT INTO Courses VALUES (3, 'Algorithms', 'CS', 4102)",
+                "INSERT INTO Reviews VALUES (1, 1, 'alice', 2, 'older', '2024-01-01 10:00:00')",
+                "INSERT INTO Reviews VALUES (2, 2, 'alice', 5, 'newer', '2024-03-01 10:00:00')",
+                "INSERT INTO Reviews VALUES (3, 2, 'bob', 4, 'only on the copy', '2024-02-01 10:00:00')",
+                "INSERT INTO Reviews VALUES (4, 3, 'carol', 3, 'unrelated', '2024-02-01 10:00:00')");
+
+        Database database = open(file);
+
+        List<Course> courses = database.getAllCourses();
+        assertEquals(List.of(1, 3), courses.stream().map(Course::getCourseID).toList());
+
+        List<Review> reviews = database.getReviewsByCourse(courses.get(0));
+        reviews.sort(Comparator.comparing(Review::getAuthorUsername));
+        assertEquals(List.of("alice", "bob"), reviews.stream().map(Review::getAuthorUsername).toList());
+        assertEquals("newer", reviews.get(0).getComment());
+        assertEquals("only on the copy", reviews.get(1).getComment());
+
+        CourseStats stats = database.getCourseStats(courses.get(0));
+        assertEquals(2, stats.getReviewCount());
+        assertEquals(9.0, stats.getRatingSum(), 1e-9);
+        assertEquals(1, database.getCourseStats(courses.get(1)).getReviewCount());
+    }
+
+    @Test
+    void duplicateCoursesCanNoLongerBeAdded() throws SQLException {
+        Path file = createUnversionedFile(
+                "INSERT INTO Courses VALUES (1, 'Algorithms', 'CS', 4102)",
+                "INSERT INTO Courses VALUES (2, 'Algorithms', 'CS', 4102)");
+
+        Database database = open(file);
+
+        assertEquals(1, database.getAllCourses().size());
+        assertNull(database.createCourse("CS", 4102, "Algorithms"));
+    }
+}
@@ -0,0 +1,78 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseReviewPageTest {
+
+    @TempDir
+    Path directory;
+
+    private Database database;
+
+    //one user with a review on each of five courses
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        database = new Database(directory.resolve("reviews.db").toString());
+        database.connect();
+        database.createTables();
+        database.createUser("alice", "password");
+        database.createUser("bob", "password");
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Course course = database.createCourse("CS", 1000 + i, "Course " + i);
+            reviews.add(new Review(0, course.getCourseID(), "alice", 1 + i, "Review " + i));
+        }
+        database.addReviews(reviews);
+        database.addReviews(List.of(new Review(0, reviews.get(0).getCourseID(), "bob", 3, "")));
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        database.disconnect();
+    }
+
+    private static List<String> titles(Page<ReviewWithCourse> page) {
+        return page.getItems().stream().map(item -> item.course().getTitle()).toList();
+    }
+
+    @Test
+    void pagesFollowTheCursor() throws SQLException {
+        Page<ReviewWithCourse> first = database.getReviewsWithCoursesByUserPage("alice", null, 2);
+        assertEquals(List.of("Course 0", "Course 1"), titles(first));
+        assertNotNull(first.getNextCursor());
+
+        Page<ReviewWithCourse> second = database.getReviewsWithCoursesByUserPage("alice", first.getNextCursor(), 2);
+        assertEquals(List.of("Course 2", "Course 3"), titles(second));
+
+        Page<ReviewWithCourse> last = database.getReviewsWithCoursesByUserPage("alice", second.getNextCursor(), 2);
+        assertEquals(List.of("Course 4"), titles(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void reviewsComeWithTheirCourses() throws SQLException {
+        ReviewWithCourse item = database.getReviewsWithCoursesByUserPage("alice", null, 1).getItems().get(0);
+        assertEquals(item.course().getCourseID(), item.review().getCourseID());
+        assertEquals("CS", item.course().getMnemonic());
+        assertEquals(1000, item.course().getNumber());
+        assertEquals("Review 0", item.review().getComment());
+    }
+
+    @Test
+    void zeroLimitReturnsEveryReview() throws SQLException {
+        Page<ReviewWithCourse> all = database.getReviewsWithCoursesByUserPage("alice", null, 0);
+        assertEquals(5, all.getItems().size());
+        assertNull(all.getNextCursor());
+        assertEquals(1, database.getReviewsWithCoursesByUserPage("bob", null, 0).getItems().size());
+    }
+}
@@ -0,0 +1,58 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private final PrefixIndex index = new PrefixIndex(List.of("CS 3140", "cs 2100", "CS", "CHEM", "APMA", "cs", "STS"));
+
+    @Test
+    void completesInSortedOrder() {
+        assertEquals(List.of("CS", "CS 2100", "CS 3140"), index.complete("CS", 10));
+        assertEquals(List.of("CHEM", "CS", "CS 2100", "CS 3140"), index.complete("C", 10));
+    }
+
+    @Test
+    void ignoresCaseAndDropsDuplicateKeys() {
+        assertEquals(List.of("CS", "CS 2100", "CS 3140"), index.complete("cs", 10));
+        assertEquals(List.of("CS 2100"), index.complete("Cs 2", 10));
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        assertEquals(List.of("CHEM", "CS"), index.complete("C", 2));
+        assertEquals(List.of(), index.complete("C", 0));
+    }
+
+    @Test
+    void emptyPrefixMatchesEveryKey() {
+        assertEquals(List.of("APMA", "CHEM", "CS", "CS 2100", "CS 3140", "STS"), index.complete("", 10));
+    }
+
+    @Test
+    void unmatchedPrefixesFindNothing() {
+        assertEquals(List.of(), index.complete("B", 10));
+        assertEquals(List.of(), index.complete("ZZZ", 10));
+        assertEquals(List.of(), index.complete("CS 31400", 10));
+        assertEquals(List.of(), new PrefixIndex(List.of()).complete("CS", 10));
+    }
+
+    @Test
+    void matchesASortedScanOverManyKeys() {
+        List<String> keys = new ArrayList<>();
+        for (int number = 1000; number < 1300; number += 7) {
+            keys.add("MATH " + number);
+            keys.add("ECE " + number);
+        }
+        PrefixIndex large = new PrefixIndex(keys);
+        for (String prefix : List.of("MATH 1", "MATH 12", "ECE 10", "E", "MATH 1001", "MATH 1000")) {
+            List<String> expected = keys.stream().filter(key -> key.startsWith(prefix)).sorted().limit(5).toList();
+            assertEquals(expected, large.complete(prefix, 5), prefix);
+        }
+    }
+}
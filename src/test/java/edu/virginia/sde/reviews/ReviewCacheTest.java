@@ -0,0 +1,125 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewCacheTest {
+
+    //a review is weighed at 96 bytes plus two per comment character, so each one here weighs 200
+    private static final String COMMENT = "x".repeat(52);
+    private static final long REVIEW_WEIGHT = 200;
+
+    @TempDir
+    Path directory;
+
+    private Database database;
+    private Course first, second, third;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        database = new Database(directory.resolve("reviews.db").toString());
+        database.connect();
+        database.createTables();
+        database.createUser("alice", "password");
+        database.createUser("bob", "password");
+        first = database.createCourse("CS", 2100, "Data Structures");
+        second = database.createCourse("CS", 3140, "Software Development");
+        third = database.createCourse("CS", 4102, "Algorithms");
+        database.addReviews(List.of(
+                new Review(0, first.getCourseID(), "alice", 4, COMMENT),
+                new Review(0, second.getCourseID(), "alice", 3, COMMENT),
+                new Review(0, third.getCourseID(), "alice", 5, COMMENT)));
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        database.disconnect();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() throws SQLException {
+        ReviewCache cache = new ReviewCache(database);
+
+        List<Review> loaded = cache.getReviews(first);
+        assertSame(loaded, cache.getReviews(first));
+        assertEquals(1, loaded.size());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertThrows(UnsupportedOperationException.class, () -> loaded.add(loaded.get(0)));
+    }
+
+    @Test
+    void entriesAreWeighedByTheirComments() throws SQLException {
+        ReviewCache cache = new ReviewCache(database);
+        cache.getReviews(first);
+        assertEquals(REVIEW_WEIGHT, cache.getWeight());
+
+        database.addReviews(List.of(new Review(0, second.getCourseID(), "bob", 2, "")));
+        cache.getReviews(second);
+        assertEquals(REVIEW_WEIGHT + REVIEW_WEIGHT + 96, cache.getWeight());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedOncePastTheLimit() throws SQLException {
+        ReviewCache cache = new ReviewCache(database, 2 * REVIEW_WEIGHT + 50);
+        cache.getReviews(first);
+        cache.getReviews(second);
+        cache.getReviews(first);
+        cache.getReviews(third);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2 * REVIEW_WEIGHT, cache.getWeight());
+
+        long misses = cache.getMissCount();
+        cache.getReviews(first);
+        cache.getReviews(third);
+        assertEquals(misses, cache.getMissCount());
+        cache.getReviews(second);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    void listsHeavierThanTheLimitAreNotCached() throws SQLException {
+        ReviewCache cache = new ReviewCache(database, REVIEW_WEIGHT - 1);
+        assertEquals(1, cache.getReviews(first).size());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void commitsDropTheCoursesTheyChange() throws SQLException {
+        ReviewCache cache = new ReviewCache(database);
+        cache.getReviews(first);
+        cache.getReviews(second);
+
+        database.addReviews(List.of(new Review(0, first.getCourseID(), "bob", 1, "changed")));
+        assertEquals(1, cache.size());
+        assertEquals(REVIEW_WEIGHT, cache.getWeight());
+        assertEquals(2, cache.getReviews(first).size());
+
+        database.deleteReview(second.getCourseID(), "alice");
+        assertEquals(List.of(), cache.getReviews(second));
+    }
+
+    @Test
+    void invalidateAllEmptiesTheCache() throws SQLException {
+        ReviewCache cache = new ReviewCache(database);
+        cache.getReviews(first);
+        cache.getReviews(second);
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+        cache.getReviews(first);
+        assertEquals(3, cache.getMissCount());
+    }
+}
@@ -0,0 +1,102 @@
+package edu.virginia.sde.reviews;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewWriteQueueTest {
+
+    @TempDir
+    Path directory;
+
+    private Database database;
+    private Course course;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        database = new Database(directory.resolve("reviews.db").toString());
+        database.connect();
+        database.createTables();
+        course = database.createCourse("CS", 3140, "Software Development");
+        for (int i = 0; i < 50; i++) {
+            database.createUser("user" + i, "password");
+        }
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        database.disconnect();
+    }
+
+    @Test
+    void queuedWritesAreCommittedBeforeShutdownReturns() throws Exception {
+        ReviewWriteQueue queue = new ReviewWriteQueue(database);
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(queue.upsert(new Review(0, course.getCourseID(), "user" + i, 4, "")));
+        }
+        results.add(queue.delete(course.getCourseID(), "user0"));
+
+        queue.shutdown();
+
+        for (CompletableFuture<Void> result : results) {
+            assertTrue(result.isDone() && !result.isCompletedExceptionally());
+        }
+        assertEquals(9, database.getReviewsByCourse(course).size());
+        assertThrows(IllegalStateException.class,
+                () -> queue.upsert(new Review(0, course.getCourseID(), "user1", 5, "")));
+    }
+
+    //every write either is refused up front or completes; none may be left waiting when shutdown races it
+    @Test
+    void writesRacingShutdownNeverHang() throws Exception {
+        ReviewWriteQueue queue = new ReviewWriteQueue(database, 1, 256);
+        List<CompletableFuture<Void>> accepted = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                start.await();
+                for (int i = 0; ; i++) {
+                    CompletableFuture<Void> result =
+                            queue.upsert(new Review(0, course.getCourseID(), "user" + (i % 50), 3, ""));
+                    synchronized (accepted) {
+                        accepted.add(result);
+                    }
+                }
+            } catch (IllegalStateException | InterruptedException refused) {
+                //shutdown has begun
+            }
+        });
+        writer.start();
+        start.countDown();
+        Thread.sleep(20);
+        queue.shutdown();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+
+        synchronized (accepted) {
+            assertFalse(accepted.isEmpty());
+            for (CompletableFuture<Void> result : accepted) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException failed) {
+                    //completed, which is all that matters here
+                } catch (TimeoutException e) {
+                    fail("A write accepted while shutting down never completed");
+                }
+            }
+        }
+    }
+}